@@ -1,4 +1,7 @@
 public class BadFormatException extends Exception {
+    // the line of the file the exception refers to, or 0 if it does not refer to a specific line
+    private int lineNumber;
+
     public BadFormatException(String message) {
         super(message);
     }
@@ -6,4 +9,16 @@ public class BadFormatException extends Exception {
     public BadFormatException(Throwable cause) {
         super(cause);
     }
+
+    // the same error, reported against a line of the file
+    // the message stays exactly the one of the error, the line is only told by getLineNumber
+    public BadFormatException(BadFormatException error, int lineNumber) {
+        super(error.getMessage(), error);
+        this.lineNumber = lineNumber;
+    }
+
+    // line number getter
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
 }
@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+// byte level helpers for the fast path of the student and course file loaders, which scan a memory mapped file
+// instead of reading it line by line into strings
+// all the helpers only deal with ASCII, the loaders hand any line that holds a non-ASCII byte to their regular
+// string based parsing, and every helper mirrors the String method the regular parsing uses, so both paths accept
+// and reject exactly the same lines
+public class CatalogByteParser {
+
+    // the delimiter between a key and its value
+    public static final byte KEY_VALUE_DELIMITER = ':';
+
+    // maps an entire file into memory, returns null if the file is too large to be mapped at once
+    public static ByteBuffer map(String filePath) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+    }
+
+    // returns the position of the end of the line that starts at the given position (exclusive, before its terminator)
+    // lines end with '\n', '\r' or "\r\n", just like BufferedReader.readLine
+    public static int lineEnd(ByteBuffer buffer, int lineStart, int limit) {
+        int position = lineStart;
+        while (position < limit) {
+            byte current = buffer.get(position);
+            if (current == '\n' || current == '\r') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    // returns the position where the line after the one that ends at the given position starts
+    public static int nextLineStart(ByteBuffer buffer, int lineEnd, int limit) {
+        if (lineEnd >= limit) {
+            return limit;
+        }
+        if (buffer.get(lineEnd) == '\r' && lineEnd + 1 < limit && buffer.get(lineEnd + 1) == '\n') {
+            return lineEnd + 2;
+        }
+        return lineEnd + 1;
+    }
+
+    // returns the position where the first line that starts at or after the given position starts
+    public static int lineStartAtOrAfter(ByteBuffer buffer, int position, int limit) {
+        if (position <= 0) {
+            return 0;
+        }
+        byte previous = buffer.get(position - 1);
+        if (previous == '\n' || (previous == '\r' && (position >= limit || buffer.get(position) != '\n'))) {
+            // the given position already starts a line
+            return position;
+        }
+        return nextLineStart(buffer, lineEnd(buffer, position, limit), limit);
+    }
+
+    // returns true if every byte in the range is ASCII
+    public static boolean isAscii(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // same as Character.isWhitespace for an ASCII byte
+    public static boolean isWhitespace(byte value) {
+        return value == ' ' || (value >= '\t' && value <= '\r') || (value >= 0x1C && value <= 0x1F);
+    }
+
+    // same as String.isBlank for an ASCII range
+    public static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isWhitespace(buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // returns the position of the first delimiter in the range, or -1 if there is none
+    public static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // returns true if every byte in the range is the given byte, which is also true for an empty range
+    public static boolean consistsOf(ByteBuffer buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // returns true if the range holds exactly the given ASCII key
+    public static boolean matches(ByteBuffer buffer, int from, int to, byte[] key) {
+        if (to - from != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(from + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // returns the start of the range after the same characters String.trim removes
+    public static int trimStart(ByteBuffer buffer, int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    // returns the end of the range after the same characters String.trim removes
+    public static int trimEnd(ByteBuffer buffer, int from, int to) {
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    // turns an ASCII range into a string
+    public static String asciiString(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    // turns a range into a string using the same charset FileReader uses
+    public static String decodedString(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, Charset.defaultCharset());
+    }
+
+    // same as Integer.parseInt for an ASCII range, without creating a string
+    public static int parseInt(ByteBuffer buffer, int from, int to) throws NumberFormatException {
+        if (from >= to) {
+            throw new NumberFormatException();
+        }
+        boolean negative = false;
+        byte first = buffer.get(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            from++;
+            if (from >= to) {
+                throw new NumberFormatException();
+            }
+        }
+        // accumulate in a long, and stop as soon as we leave the int range
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException();
+            }
+            result = result * 10 + digit;
+            if (result > limit) {
+                throw new NumberFormatException();
+            }
+        }
+        return (int) (negative ? -result : result);
+    }
+
+    // same as LocalDate.parse for an ASCII range, strings shaped exactly like yyyy-MM-dd are parsed without creating
+    // a string, anything else is handed to LocalDate.parse itself
+    public static LocalDate parseDate(ByteBuffer buffer, int from, int to) throws DateTimeException {
+        if (to - from == 10 && buffer.get(from + 4) == '-' && buffer.get(from + 7) == '-'
+                && areDigits(buffer, from, from + 4) && areDigits(buffer, from + 5, from + 7) && areDigits(buffer, from + 8, from + 10)) {
+            return LocalDate.of(parseInt(buffer, from, from + 4), parseInt(buffer, from + 5, from + 7), parseInt(buffer, from + 8, from + 10));
+        }
+        return LocalDate.parse(asciiString(buffer, from, to));
+    }
+
+    private static boolean areDigits(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte value = buffer.get(i);
+            if (value < '0' || value > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
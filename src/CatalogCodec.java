@@ -0,0 +1,113 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// writes and reads students and courses in a compact binary form, shared by every binary file the application writes
+// a student is written as [id, name, join date as epoch day], and a course table is written as all the courses
+// followed by the prerequisites of every course as positions inside the table
+public class CatalogCodec {
+
+    // writes a single student
+    public static void writeStudent(DataOutput output, Student student) throws IOException {
+        output.writeUTF(student.getId());
+        output.writeUTF(student.getName());
+        output.writeLong(student.getEnrollmentDate().toEpochDay());
+    }
+
+    // reads a single student
+    public static Student readStudent(DataInput input) throws IOException {
+        String id = input.readUTF();
+        String name = input.readUTF();
+        long enrollmentEpochDay = input.readLong();
+        try {
+            return new Student(id, name, LocalDate.ofEpochDay(enrollmentEpochDay));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IOException("corrupt student record!", e);
+        }
+    }
+
+    // returns the given courses followed by all of their direct and indirect prerequisites that are not among them,
+    // which is a table that can be written with writeCourseTable
+    public static List<Course> withPrerequisites(Collection<Course> courses) {
+        Map<Course, Boolean> table = new LinkedHashMap<>();
+        for (Course course: courses) {
+            table.put(course, Boolean.TRUE);
+        }
+        List<Course> result = new ArrayList<>(table.keySet());
+        for (int i = 0; i < result.size(); i++) {
+            for (Course prerequisite: result.get(i).getPrerequisites()) {
+                if (table.put(prerequisite, Boolean.TRUE) == null) {
+                    result.add(prerequisite);
+                }
+            }
+        }
+        return result;
+    }
+
+    // writes a course table, every prerequisite of every course must be part of the table itself
+    public static void writeCourseTable(DataOutput output, List<Course> courses) throws IOException {
+        Map<Course, Integer> indexPerCourse = new HashMap<>();
+        for (int i = 0; i < courses.size(); i++) {
+            indexPerCourse.put(courses.get(i), i);
+        }
+        output.writeInt(courses.size());
+        for (Course course: courses) {
+            output.writeUTF(course.getCode());
+            output.writeUTF(course.getTitle());
+            output.writeInt(course.getCreditPoints());
+            output.writeInt(course.getCapacity());
+        }
+        // prerequisites go last, so the reader has every course at hand before linking them
+        for (Course course: courses) {
+            // read once, so the count and the prerequisites written come from the same list
+            List<Course> prerequisites = course.getPrerequisites();
+            output.writeInt(prerequisites.size());
+            for (Course prerequisite: prerequisites) {
+                Integer prerequisiteIndex = indexPerCourse.get(prerequisite);
+                if (prerequisiteIndex == null) {
+                    throw new IllegalArgumentException("prerequisite '" + prerequisite.getCode() + "' is missing from the course table!");
+                }
+                output.writeInt(prerequisiteIndex);
+            }
+        }
+    }
+
+    // reads a course table and links the prerequisites of every course
+    public static List<Course> readCourseTable(DataInput input) throws IOException {
+        int courseCount = input.readInt();
+        if (courseCount < 0) {
+            throw new IOException("corrupt course table!");
+        }
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < courseCount; i++) {
+            String code = input.readUTF();
+            String title = input.readUTF();
+            int creditPoints = input.readInt();
+            int capacity = input.readInt();
+            try {
+                courses.add(new Course(code, title, creditPoints, capacity, new ArrayList<>()));
+            } catch (CapacityTooSmallException | IllegalArgumentException e) {
+                throw new IOException("corrupt course record!", e);
+            }
+        }
+        for (Course course: courses) {
+            int prerequisiteCount = input.readInt();
+            for (int i = 0; i < prerequisiteCount; i++) {
+                int prerequisiteIndex = input.readInt();
+                if (prerequisiteIndex < 0 || prerequisiteIndex >= courses.size()) {
+                    throw new IOException("corrupt course table!");
+                }
+                course.addPrerequisite(courses.get(prerequisiteIndex));
+            }
+        }
+        return courses;
+    }
+}
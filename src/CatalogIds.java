@@ -0,0 +1,50 @@
+// the dense ids of all the students and courses known to the application
+// the file loaders intern every student and course they load, and the enrollment manager interns the ones it
+// meets for the first time, so enrollments can be stored as ids instead of object references
+public class CatalogIds {
+
+    // student ids
+    private static final IdInterner<Student> students = new IdInterner<>();
+    // course ids
+    private static final IdInterner<Course> courses = new IdInterner<>();
+
+    // returns the id of a student, interning it first if needed
+    public static int internStudent(Student student) {
+        return students.intern(student);
+    }
+
+    // returns the id of a course, interning it first if needed
+    public static int internCourse(Course course) {
+        return courses.intern(course);
+    }
+
+    // returns the id of a student, or -1 if it was never interned
+    public static int studentId(Student student) {
+        return students.idOf(student);
+    }
+
+    // returns the id of a course, or -1 if it was never interned
+    public static int courseId(Course course) {
+        return courses.idOf(course);
+    }
+
+    // returns the student whose id is the given id
+    public static Student student(int studentId) {
+        return students.valueOf(studentId);
+    }
+
+    // returns the course whose id is the given id
+    public static Course course(int courseId) {
+        return courses.valueOf(courseId);
+    }
+
+    // returns the amount of students interned so far
+    public static int studentCount() {
+        return students.size();
+    }
+
+    // returns the amount of courses interned so far
+    public static int courseCount() {
+        return courses.size();
+    }
+}
@@ -0,0 +1,273 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// loads the same generated catalog files with every loader - the string parser (load), the byte parser (loadMapped)
+// and, for students, the parallel chunks (loadParallel) - and tells where they do not agree. the loaders promise to
+// accept and reject exactly the same files, and to report errors against the same lines, so any difference in the
+// loaded values, the error message or the error line is a mismatch
+public class CatalogLoaderCheck {
+
+    // the line every large student file is split around by loadParallel is at the middle of the file, as long as
+    // the file is at least 2 and less than 3 minimal parallel chunks long (see StudentFileLoader.findChunkStarts)
+    private static final int LARGE_STUDENT_FILE_COUNT = 45000;
+    // how many lines before and after the line at the middle of a large file get an error of their own
+    private static final int CHUNK_BOUNDARY_DISTANCE = 4;
+
+    // the lines of the student files that are broken in some way, put around the chunk boundary of a large file
+    private static final List<String> BAD_STUDENT_LINES = List.of(
+            "Joined: 2021-02-30", "Bogus: 1", "ID: ", "ID:::", "ID: Z\u00e9", "ID: +123456789", "Name:", "Joined: 2021-1-01");
+
+    // returns a description of every file the loaders did not agree on, an empty list means they all agreed
+    public static List<String> check() throws IOException {
+        List<String> mismatches = new ArrayList<>();
+        Path directory = Files.createTempDirectory("catalog-loader-check");
+        try {
+            checkStudentFiles(directory, mismatches);
+            checkCourseFiles(directory, mismatches);
+        } finally {
+            Files.deleteIfExists(directory.resolve("students.txt"));
+            Files.deleteIfExists(directory.resolve("courses.txt"));
+            Files.deleteIfExists(directory);
+        }
+        return mismatches;
+    }
+
+    private static void checkStudentFiles(Path directory, List<String> mismatches) throws IOException {
+        Path file = directory.resolve("students.txt");
+        List<String> valid = List.of(
+                "ID: 123456789", "Name: Dana Cohen", "Joined: 2022-10-01", "",
+                "ID: 317865222", "Joined: 2023-02-14", "Name: Amir Levi", "",
+                "ID: 123456789", "Name: Dana Again", "Joined: 2024-01-01");
+
+        checkStudents(file, "valid", valid, "\n", true, mismatches);
+        checkStudents(file, "valid with \\r\\n", valid, "\r\n", true, mismatches);
+        checkStudents(file, "no line separator at the end", valid, "\n", false, mismatches);
+        List<String> mixed = new ArrayList<>();
+        for (int i = 0; i < valid.size(); i++) {
+            mixed.add(i % 2 == 0 ? valid.get(i) + "\r" : valid.get(i));
+        }
+        checkStudents(file, "mixed line separators", mixed, "\n", false, mismatches);
+        checkStudents(file, "empty", List.of(), "\n", false, mismatches);
+        checkStudents(file, "only blank lines", List.of("", "   ", "\t", ""), "\n", true, mismatches);
+        checkStudents(file, "blank lines with spaces", List.of(
+                "", "  ", "ID: 123456789", "   ", "Name: Dana Cohen", "", "", "Joined: 2022-10-01", " ", ""),
+                "\r\n", true, mismatches);
+        checkStudents(file, "a parameter before the first ID", List.of(
+                "Name: Dana Cohen", "ID: 123456789", "Joined: 2022-10-01"), "\n", true, mismatches);
+        checkStudents(file, "non-ASCII name", List.of(
+                "ID: 123456789", "Name: Zo\u00eb Ben-David", "Joined: 2022-10-01", "",
+                "ID: 317865222", "Name: \u05d3\u05e0\u05d4 \u05db\u05d4\u05df", "Joined: 2023-02-14"), "\n", true, mismatches);
+        checkStudents(file, "non-ASCII key", List.of(
+                "\u00cdD: 123456789", "Name: Dana Cohen", "Joined: 2022-10-01"), "\n", true, mismatches);
+        checkStudents(file, "spaces around the values", List.of(
+                "ID:   123456789  ", "Name:  Dana Cohen ", "Joined:  2022-10-01 "), "\n", true, mismatches);
+        checkStudents(file, "missing parameter at the end of the file", List.of(
+                "ID: 123456789", "Name: Dana Cohen", "Joined: 2022-10-01", "", "ID: 317865222", "Name: Amir Levi"),
+                "\n", true, mismatches);
+        checkStudents(file, "missing parameter before the next ID", List.of(
+                "ID: 123456789", "Name: Dana Cohen", "", "ID: 317865222", "Name: Amir Levi", "Joined: 2023-02-14"),
+                "\n", true, mismatches);
+        for (String badLine: BAD_STUDENT_LINES) {
+            checkStudents(file, "bad line '" + badLine + "'", List.of(
+                    "ID: 123456789", "Name: Dana Cohen", "Joined: 2022-10-01", "", badLine, "",
+                    "ID: 317865222", "Name: Amir Levi", "Joined: 2023-02-14"), "\n", true, mismatches);
+        }
+
+        // large enough files to be split into chunks by loadParallel, with errors right around the chunk boundary
+        List<String> large = largeStudentLines();
+        checkStudents(file, "large valid", large, "\n", true, mismatches);
+        checkStudents(file, "large valid with \\r\\n", large, "\r\n", false, mismatches);
+        for (int distance = -CHUNK_BOUNDARY_DISTANCE; distance <= CHUNK_BOUNDARY_DISTANCE; distance++) {
+            String lineSeparator = distance % 2 == 0 ? "\n" : "\r\n";
+            int line = middleLine(large, lineSeparator) + distance;
+            String badLine = BAD_STUDENT_LINES.get(Math.floorMod(distance, BAD_STUDENT_LINES.size()));
+            List<String> withBadLine = new ArrayList<>(large);
+            withBadLine.set(line, badLine);
+            checkStudents(file, "large with '" + badLine + "' at line " + (line + 1), withBadLine, lineSeparator, true, mismatches);
+
+            List<String> withoutLine = new ArrayList<>(large);
+            withoutLine.remove(line);
+            checkStudents(file, "large without line " + (line + 1), withoutLine, lineSeparator, true, mismatches);
+        }
+    }
+
+    // returns the lines of a student file big enough to be split in two chunks, with blank lines and non-ASCII names
+    // spread all over it
+    private static List<String> largeStudentLines() {
+        Random random = new Random(LARGE_STUDENT_FILE_COUNT);
+        String[] names = { "Dana Cohen", "Amir Levi", "Zo\u00eb Ben-David", "\u05d3\u05e0\u05d4 \u05db\u05d4\u05df", "Yossi Mizrahi" };
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < LARGE_STUDENT_FILE_COUNT; i++) {
+            String name = "Name: " + names[random.nextInt(names.length)] + " " + i;
+            String joined = "Joined: 20" + (10 + random.nextInt(15)) + "-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10);
+            lines.add("ID: " + (100000000 + random.nextInt(LARGE_STUDENT_FILE_COUNT)));
+            if (random.nextBoolean()) {
+                lines.add(name);
+                lines.add(joined);
+            } else {
+                lines.add(joined);
+                lines.add(name);
+            }
+            if (random.nextInt(3) != 0) {
+                lines.add("");
+            }
+        }
+        return lines;
+    }
+
+    // returns the index of the line that holds the middle byte of the lines once they are written
+    private static int middleLine(List<String> lines, String lineSeparator) {
+        long length = 0;
+        for (String line: lines) {
+            length += line.getBytes(StandardCharsets.UTF_8).length + lineSeparator.length();
+        }
+        long position = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            position += lines.get(i).getBytes(StandardCharsets.UTF_8).length + lineSeparator.length();
+            if (position > length / 2) {
+                return i;
+            }
+        }
+        return lines.size() - 1;
+    }
+
+    private static void checkCourseFiles(Path directory, List<String> mismatches) throws IOException {
+        Path file = directory.resolve("courses.txt");
+        List<String> valid = List.of(
+                "CODE: CS-101", "TITLE: Intro To Programming", "CREDITS: 4", "CAPACITY: 60", "",
+                "CODE: CS-201", "TITLE: Data Structures", "CREDITS: 5", "CAPACITY: 40", "PREREQUISITES: CS-101", "",
+                "CODE: CS-301", "TITLE: Algorithms", "CAPACITY: 30", "CREDITS: 5", "PREREQUISITES: CS-101, CS-201");
+
+        checkCourses(file, "valid", valid, "\n", true, mismatches);
+        checkCourses(file, "valid with \\r\\n", valid, "\r\n", true, mismatches);
+        checkCourses(file, "no line separator at the end", valid, "\n", false, mismatches);
+        checkCourses(file, "empty", List.of(), "\n", false, mismatches);
+        checkCourses(file, "blank lines with spaces", List.of(
+                "", "  ", "CODE: CS-101", "\t", "TITLE: Intro To Programming", "", "CREDITS: 4", " ", "CAPACITY: 60", ""),
+                "\r\n", true, mismatches);
+        checkCourses(file, "non-ASCII title", List.of(
+                "CODE: CS-101", "TITLE: Introducci\u00f3n \u00e0 la programmation", "CREDITS: 4", "CAPACITY: 60", "",
+                "CODE: CS-102", "TITLE: \u05de\u05d1\u05d5\u05d0 \u05dc\u05de\u05d3\u05e2\u05d9 \u05d4\u05de\u05d7\u05e9\u05d1", "CREDITS: 4", "CAPACITY: 60"), "\n", true, mismatches);
+        checkCourses(file, "non-ASCII code", List.of(
+                "CODE: CS-1\u00d81", "TITLE: Intro To Programming", "CREDITS: 4", "CAPACITY: 60"), "\n", true, mismatches);
+        checkCourses(file, "a parameter before the first CODE", List.of(
+                "TITLE: Intro To Programming", "CODE: CS-101", "CREDITS: 4", "CAPACITY: 60"), "\n", true, mismatches);
+        checkCourses(file, "unknown prerequisite", List.of(
+                "CODE: CS-201", "TITLE: Data Structures", "CREDITS: 5", "CAPACITY: 40", "PREREQUISITES: CS-101"),
+                "\n", true, mismatches);
+        checkCourses(file, "prerequisite cycle", List.of(
+                "CODE: CS-101", "TITLE: Intro To Programming", "CREDITS: 4", "CAPACITY: 60", "PREREQUISITES: CS-201", "",
+                "CODE: CS-201", "TITLE: Data Structures", "CREDITS: 5", "CAPACITY: 40", "PREREQUISITES: CS-101"),
+                "\n", true, mismatches);
+        for (String prerequisites: List.of("PREREQUISITES:", "PREREQUISITES: ,CS-101", "PREREQUISITES: CS-101,,CS-101", "PREREQUISITES: CS-101 ,")) {
+            checkCourses(file, "prerequisites '" + prerequisites + "'", List.of(
+                    "CODE: CS-101", "TITLE: Intro To Programming", "CREDITS: 4", "CAPACITY: 60", "",
+                    "CODE: CS-201", "TITLE: Data Structures", "CREDITS: 5", "CAPACITY: 40", prerequisites),
+                    "\n", true, mismatches);
+        }
+
+        // the numbers are where the byte parser does the most work of its own
+        List<String> numbers = Arrays.asList(
+                "4", "+4", "-4", "0", "+0", "-0", "04", " 4 ", "+", "-", "", "4.0", "4a", "0x4", "\u0664", "\uff14",
+                "2147483647", "2147483648", "+2147483647", "-2147483648", "-2147483649", "99999999999999999999");
+        for (String number: numbers) {
+            checkCourses(file, "credits '" + number + "'", List.of(
+                    "CODE: CS-101", "TITLE: Intro To Programming", "CREDITS: " + number, "CAPACITY: 60"),
+                    "\n", true, mismatches);
+            checkCourses(file, "capacity '" + number + "'", List.of(
+                    "CODE: CS-101", "TITLE: Intro To Programming", "CREDITS: 4", "CAPACITY:" + number),
+                    "\r\n", false, mismatches);
+        }
+    }
+
+    private static void checkStudents(Path file, String name, List<String> lines, String lineSeparator, boolean lastLineSeparator, List<String> mismatches) throws IOException {
+        write(file, lines, lineSeparator, lastLineSeparator);
+        String path = file.toString();
+
+        String loaded = loadStudents(path, 0);
+        String mapped = loadStudents(path, 1);
+        String parallel = loadStudents(path, 2);
+        if (!loaded.equals(mapped)) {
+            mismatches.add("students, " + name + ": load gave " + shorten(loaded) + ", loadMapped gave " + shorten(mapped));
+        }
+        if (!loaded.equals(parallel)) {
+            mismatches.add("students, " + name + ": load gave " + shorten(loaded) + ", loadParallel gave " + shorten(parallel));
+        }
+    }
+
+    private static void checkCourses(Path file, String name, List<String> lines, String lineSeparator, boolean lastLineSeparator, List<String> mismatches) throws IOException {
+        write(file, lines, lineSeparator, lastLineSeparator);
+        String path = file.toString();
+
+        String loaded = loadCourses(path, false);
+        String mapped = loadCourses(path, true);
+        if (!loaded.equals(mapped)) {
+            mismatches.add("courses, " + name + ": load gave " + shorten(loaded) + ", loadMapped gave " + shorten(mapped));
+        }
+    }
+
+    // loads the students with a new loader - 0 for load, 1 for loadMapped and 2 for loadParallel - and returns every
+    // value of every loaded student, or the error and its line
+    private static String loadStudents(String path, int loader) {
+        try {
+            StudentFileLoader studentLoader = new StudentFileLoader();
+            List<Student> students = loader == 0 ? studentLoader.load(path)
+                    : loader == 1 ? studentLoader.loadMapped(path)
+                    : studentLoader.loadParallel(path);
+            StringBuilder result = new StringBuilder();
+            for (Student student: students) {
+                result.append('[').append(student.getId()).append('|').append(student.getName()).append('|').append(student.getEnrollmentDate()).append(']');
+            }
+            return result.toString();
+        } catch (Exception e) {
+            return describe(e);
+        }
+    }
+
+    // loads the courses with a new loader, mapped or not, and returns every value of every loaded course, or the
+    // error and its line
+    private static String loadCourses(String path, boolean mapped) {
+        try {
+            CourseFileLoader courseLoader = new CourseFileLoader();
+            List<Course> courses = mapped ? courseLoader.loadMapped(path) : courseLoader.load(path);
+            StringBuilder result = new StringBuilder();
+            for (Course course: courses) {
+                result.append('[').append(course.getCode()).append('|').append(course.getTitle()).append('|')
+                        .append(course.getCreditPoints()).append('|').append(course.getCapacity());
+                for (Course prerequisite: course.getPrerequisites()) {
+                    result.append('|').append(prerequisite.getCode());
+                }
+                result.append(']');
+            }
+            return result.toString();
+        } catch (Exception e) {
+            return describe(e);
+        }
+    }
+
+    private static String describe(Exception e) {
+        String description = e.getClass().getName() + ": " + e.getMessage();
+        if (e instanceof BadFormatException) {
+            description += " (line " + ((BadFormatException) e).getLineNumber() + ")";
+        }
+        return description;
+    }
+
+    private static String shorten(String result) {
+        return result.length() <= 200 ? result : result.substring(0, 200) + "...";
+    }
+
+    private static void write(Path file, List<String> lines, String lineSeparator, boolean lastLineSeparator) throws IOException {
+        String text = String.join(lineSeparator, lines);
+        if (lastLineSeparator && !lines.isEmpty()) {
+            text += lineSeparator;
+        }
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// a binary copy of the students or courses parsed from a text file, kept next to it as <text file>.snapshot, so the
+// next start can read the parsed and linked catalog back without parsing the text again
+// the snapshot is written as [int magic][short version][byte kind][long text file size][long text file modified time]
+// followed by the students or the course table (see CatalogCodec), and it is only used while the size and modified
+// time of the text file are still the same as when it was parsed
+// the snapshot is only a cache - one that is missing, stale or corrupt is simply ignored
+public class CatalogSnapshot {
+
+    // the first bytes of every snapshot file
+    public static final int SNAPSHOT_MAGIC = 0x434D4353;
+    // the current version of the snapshot format
+    public static final short SNAPSHOT_VERSION = 1;
+    // the extension added to the text file path
+    public static final String SNAPSHOT_EXTENSION = ".snapshot";
+    // what the snapshot holds
+    private static final byte STUDENTS_KIND = 1;
+    private static final byte COURSES_KIND = 2;
+    // buffer size used when reading and writing snapshots
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // the text file the snapshot belongs to
+    private String sourcePath;
+    // the size and modified time of the text file when this object was created
+    private long sourceSize;
+    private long sourceModifiedTime;
+
+    // constructor, takes the size and modified time of the text file right away, so a change made to the text file
+    // while it is being parsed makes the snapshot stale instead of hiding the change
+    public CatalogSnapshot(String sourcePath) {
+        if (sourcePath == null) {
+            throw new NullPointerException("sourcePath string cannot be null!");
+        }
+        this.sourcePath = sourcePath;
+        File sourceFile = new File(sourcePath);
+        this.sourceSize = sourceFile.length();
+        this.sourceModifiedTime = sourceFile.lastModified();
+    }
+
+    // snapshot file path getter
+    public String getSnapshotPath() {
+        return this.sourcePath + SNAPSHOT_EXTENSION;
+    }
+
+    // returns the students of the snapshot, or null if there is no snapshot that matches the text file
+    public List<Student> readStudents() {
+        DataInputStream dataInputStream = openIfFresh(STUDENTS_KIND);
+        if (dataInputStream == null) {
+            return null;
+        }
+        try {
+            int studentCount = dataInputStream.readInt();
+            if (studentCount < 0) {
+                return null;
+            }
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < studentCount; i++) {
+                students.add(CatalogCodec.readStudent(dataInputStream));
+            }
+            return students;
+        } catch (IOException e) {
+            // a corrupt snapshot is the same as no snapshot
+            return null;
+        } finally {
+            closeQuietly(dataInputStream);
+        }
+    }
+
+    // returns the courses of the snapshot with their prerequisites linked, or null if there is no snapshot that
+    // matches the text file
+    public List<Course> readCourses() {
+        DataInputStream dataInputStream = openIfFresh(COURSES_KIND);
+        if (dataInputStream == null) {
+            return null;
+        }
+        try {
+            return CatalogCodec.readCourseTable(dataInputStream);
+        } catch (IOException e) {
+            // a corrupt snapshot is the same as no snapshot
+            return null;
+        } finally {
+            closeQuietly(dataInputStream);
+        }
+    }
+
+    // writes the students parsed from the text file
+    public void writeStudents(List<Student> students) throws IOException {
+        if (students == null) {
+            throw new NullPointerException("students list cannot be null!");
+        }
+        String temporarySnapshotPath = getSnapshotPath() + ".tmp";
+        DataOutputStream dataOutputStream = create(temporarySnapshotPath, STUDENTS_KIND);
+        try {
+            dataOutputStream.writeInt(students.size());
+            for (Student student: students) {
+                CatalogCodec.writeStudent(dataOutputStream, student);
+            }
+        } finally {
+            dataOutputStream.close();
+        }
+        replaceSnapshot(temporarySnapshotPath);
+    }
+
+    // writes the courses parsed from the text file, every prerequisite must be one of the courses
+    public void writeCourses(List<Course> courses) throws IOException {
+        if (courses == null) {
+            throw new NullPointerException("courses list cannot be null!");
+        }
+        String temporarySnapshotPath = getSnapshotPath() + ".tmp";
+        DataOutputStream dataOutputStream = create(temporarySnapshotPath, COURSES_KIND);
+        try {
+            CatalogCodec.writeCourseTable(dataOutputStream, courses);
+        } finally {
+            dataOutputStream.close();
+        }
+        replaceSnapshot(temporarySnapshotPath);
+    }
+
+    // opens the snapshot and reads its header, returns null if there is no snapshot of the given kind that was
+    // written for the text file as it is now
+    private DataInputStream openIfFresh(byte kind) {
+        File snapshotFile = new File(getSnapshotPath());
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        DataInputStream dataInputStream = null;
+        try {
+            dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile), BUFFER_SIZE));
+            if (dataInputStream.readInt() == SNAPSHOT_MAGIC
+                    && dataInputStream.readShort() == SNAPSHOT_VERSION
+                    && dataInputStream.readByte() == kind
+                    && dataInputStream.readLong() == this.sourceSize
+                    && dataInputStream.readLong() == this.sourceModifiedTime) {
+                return dataInputStream;
+            }
+        } catch (IOException e) {
+            // a snapshot we cannot read is the same as no snapshot
+        }
+        closeQuietly(dataInputStream);
+        return null;
+    }
+
+    // creates a snapshot file and writes its header
+    private DataOutputStream create(String filePath, byte kind) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath), BUFFER_SIZE));
+        try {
+            dataOutputStream.writeInt(SNAPSHOT_MAGIC);
+            dataOutputStream.writeShort(SNAPSHOT_VERSION);
+            dataOutputStream.writeByte(kind);
+            dataOutputStream.writeLong(this.sourceSize);
+            dataOutputStream.writeLong(this.sourceModifiedTime);
+        } catch (IOException e) {
+            dataOutputStream.close();
+            throw e;
+        }
+        return dataOutputStream;
+    }
+
+    // swaps a fully written snapshot in, so a reader never sees a half written one
+    private void replaceSnapshot(String temporarySnapshotPath) throws IOException {
+        Files.move(Paths.get(temporarySnapshotPath), Paths.get(getSnapshotPath()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void closeQuietly(DataInputStream dataInputStream) {
+        if (dataInputStream == null) {
+            return;
+        }
+        try {
+            dataInputStream.close();
+        } catch (IOException e) {
+            // nothing was written, so there is nothing to lose
+        }
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+// the version of the text of the catalog - the ids and names of the students, and the codes and titles of the
+// courses - bumped whenever one of them changes after the student or course was created (by the catalog watcher or
+// by anyone else), so whatever was written from that text, like an enrollment report, can tell it went stale with
+// a single read. the version starts over on every run, so it only means something together with the run id
+public class CatalogVersion {
+
+    // the version, bumped right after the changed text was set
+    private static final AtomicLong version = new AtomicLong();
+    // a random id of this run of the application, versions of different runs cannot be compared
+    private static final long runId = new Random().nextLong();
+
+    // returns the current version
+    public static long get() {
+        return version.get();
+    }
+
+    // returns the id of this run
+    public static long getRunId() {
+        return runId;
+    }
+
+    // bumps the version, called once the changed text was set
+    static void bump() {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,396 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// keeps the students and courses loaded from the student and course files up to date while the files are edited,
+// without loading them again - the same Student and Course objects are changed in place, so enrollments and
+// everything built on top of them stay valid
+// every file is split into blocks, a block starts at an ID (or CODE) line and ends where the next one starts, and
+// a hash of every block is kept. when a file changes, only the blocks whose hash changed are parsed again, and only
+// the attributes that actually differ are set. blocks with a new id or code become new students and courses
+// a block that was removed from the file is left alone, its student or course may still have enrollments
+public class CatalogWatcher {
+
+    // how long to wait after a file changed before reading it, editors often save a file in a few steps
+    private static final long SETTLE_DELAY_MILLIS = 100;
+    // the FNV-1a offset basis and prime, used for the block hashes
+    private static final long HASH_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    // the watched files
+    private String studentFilePath;
+    private String courseFilePath;
+    // the live students and courses, by id and code, in the order they were loaded or added
+    private Map<String, Student> studentsById = new LinkedHashMap<>();
+    private Map<String, Course> coursesByCode = new LinkedHashMap<>();
+    // the hash of every block of the files, by id and code, as of the last time they were applied
+    private Map<String, Long> studentBlockHashes;
+    private Map<String, Long> courseBlockHashes;
+    // the watch service and the thread that waits on it, while watching
+    private WatchService watchService;
+    private Thread watchThread;
+    // the error the last change failed with, or null if it was applied
+    private volatile Exception lastError;
+
+    // constructor, takes the students and courses that were loaded from the two files
+    public CatalogWatcher(String studentFilePath, String courseFilePath, List<Student> students, List<Course> courses) throws IOException {
+        if (studentFilePath == null || courseFilePath == null) {
+            throw new NullPointerException("file paths cannot be null!");
+        }
+        if (students == null || courses == null) {
+            throw new NullPointerException("students and courses lists cannot be null!");
+        }
+        this.studentFilePath = studentFilePath;
+        this.courseFilePath = courseFilePath;
+        for (Student student: students) {
+            this.studentsById.putIfAbsent(student.getId(), student);
+        }
+        for (Course course: courses) {
+            this.coursesByCode.putIfAbsent(course.getCode(), course);
+        }
+        this.studentBlockHashes = hashAll(splitBlocks(studentFilePath, StudentFileLoader.ID_KEY));
+        this.courseBlockHashes = hashAll(splitBlocks(courseFilePath, CourseFileLoader.CODE_KEY));
+    }
+
+    // list of live students getter
+    public synchronized List<Student> getStudents() {
+        return new ArrayList<>(this.studentsById.values());
+    }
+
+    // list of live courses getter
+    public synchronized List<Course> getCourses() {
+        return new ArrayList<>(this.coursesByCode.values());
+    }
+
+    // returns the live student with the given id, or null if there is none
+    public synchronized Student getStudentById(String id) {
+        return this.studentsById.get(id);
+    }
+
+    // returns the live course with the given code, or null if there is none
+    public synchronized Course getCourseByCode(String code) {
+        return this.coursesByCode.get(code);
+    }
+
+    // last error getter, the watch thread has nobody to throw to, so a change it failed to apply is kept here
+    public Exception getLastError() {
+        return this.lastError;
+    }
+
+    // reads both files and applies every block that changed since the last time, returns the amount of students
+    // and courses that changed or were added
+    // a file with a bad block is not applied at all, it is tried again on the next change
+    public synchronized int checkForChanges() throws IOException, BadFormatException {
+        return applyStudentChanges() + applyCourseChanges();
+    }
+
+    // starts a thread that calls checkForChanges whenever one of the files changes
+    public synchronized void start() throws IOException {
+        if (this.watchService != null) {
+            throw new IllegalStateException("catalog watcher was already started!");
+        }
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Path studentDirectory = directoryOf(this.studentFilePath);
+        Path courseDirectory = directoryOf(this.courseFilePath);
+        studentDirectory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        if (!courseDirectory.equals(studentDirectory)) {
+            courseDirectory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        this.watchThread = new Thread(this::watch, "catalog-watcher");
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+    }
+
+    // stops watching the files
+    public synchronized void close() throws IOException {
+        if (this.watchService == null) {
+            return;
+        }
+        this.watchService.close();
+        this.watchThread.interrupt();
+        this.watchService = null;
+        this.watchThread = null;
+    }
+
+    // the body of the watch thread
+    private void watch() {
+        WatchService currentWatchService = this.watchService;
+        try {
+            while (true) {
+                WatchKey watchKey = currentWatchService.take();
+                boolean changed = isWatchedFileEvent(watchKey);
+                watchKey.reset();
+                if (!changed) {
+                    continue;
+                }
+                // let the edit settle, and fold every event that arrived meanwhile into a single check
+                Thread.sleep(SETTLE_DELAY_MILLIS);
+                while ((watchKey = currentWatchService.poll()) != null) {
+                    watchKey.pollEvents();
+                    watchKey.reset();
+                }
+                try {
+                    checkForChanges();
+                    this.lastError = null;
+                } catch (IOException | BadFormatException | RuntimeException e) {
+                    this.lastError = e;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watcher was closed
+        }
+    }
+
+    // returns true if any event of the key is about one of the watched files
+    private boolean isWatchedFileEvent(WatchKey watchKey) {
+        Path directory = (Path) watchKey.watchable();
+        boolean watchedFileEvent = false;
+        for (WatchEvent<?> event: watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // some events were lost, so check anyway
+                watchedFileEvent = true;
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context()).toAbsolutePath().normalize();
+            if (file.equals(Paths.get(this.studentFilePath).toAbsolutePath().normalize())
+                    || file.equals(Paths.get(this.courseFilePath).toAbsolutePath().normalize())) {
+                watchedFileEvent = true;
+            }
+        }
+        return watchedFileEvent;
+    }
+
+    // parses the student blocks that changed and applies them
+    private int applyStudentChanges() throws IOException, BadFormatException {
+        Map<String, String> blocks = splitBlocks(this.studentFilePath, StudentFileLoader.ID_KEY);
+        Map<String, Long> blockHashes = hashAll(blocks);
+
+        // parse everything first, so a bad block leaves every student untouched
+        List<Student> parsedStudents = new ArrayList<>();
+        for (Map.Entry<String, String> block: blocks.entrySet()) {
+            if (!blockHashes.get(block.getKey()).equals(this.studentBlockHashes.get(block.getKey()))) {
+                parsedStudents.addAll(new StudentFileLoader().load(new StringReader(block.getValue())));
+            }
+        }
+
+        int changes = 0;
+        for (Student parsedStudent: parsedStudents) {
+            Student student = this.studentsById.get(parsedStudent.getId());
+            if (student == null) {
+                this.studentsById.put(parsedStudent.getId(), parsedStudent);
+                changes++;
+                continue;
+            }
+            boolean changed = false;
+            if (!student.getName().equals(parsedStudent.getName())) {
+                student.setName(parsedStudent.getName());
+                changed = true;
+            }
+            if (!student.getEnrollmentDate().equals(parsedStudent.getEnrollmentDate())) {
+                student.setEnrollmentDate(parsedStudent.getEnrollmentDate());
+                changed = true;
+            }
+            if (changed) {
+                changes++;
+            }
+        }
+        this.studentBlockHashes = blockHashes;
+        return changes;
+    }
+
+    // parses the course blocks that changed and applies them, the prerequisites are linked once every changed
+    // block was parsed, so a changed course may refer to a course that was just added
+    private int applyCourseChanges() throws IOException, BadFormatException {
+        Map<String, String> blocks = splitBlocks(this.courseFilePath, CourseFileLoader.CODE_KEY);
+        Map<String, Long> blockHashes = hashAll(blocks);
+
+        // parse everything first, so a bad block leaves every course untouched
+        List<Course> parsedCourses = new ArrayList<>();
+        List<List<String>> parsedPrerequisites = new ArrayList<>();
+        for (Map.Entry<String, String> block: blocks.entrySet()) {
+            if (!blockHashes.get(block.getKey()).equals(this.courseBlockHashes.get(block.getKey()))) {
+                CourseFileLoader loader = new CourseFileLoader();
+                parsedCourses.addAll(loader.loadUnlinked(new StringReader(block.getValue())));
+                parsedPrerequisites.addAll(loader.getPrerequisitesPerCourse());
+            }
+        }
+        if (parsedCourses.isEmpty()) {
+            this.courseBlockHashes = blockHashes;
+            return 0;
+        }
+
+        // every course a changed course may refer to - the live courses, with the new ones among them
+        Map<String, Course> resolvableCourses = new HashMap<>(this.coursesByCode);
+        for (Course parsedCourse: parsedCourses) {
+            resolvableCourses.putIfAbsent(parsedCourse.getCode(), parsedCourse);
+        }
+        List<List<Course>> prerequisitesPerCourse = new ArrayList<>();
+        for (List<String> prerequisiteCodes: parsedPrerequisites) {
+            List<Course> prerequisites = new ArrayList<>();
+            for (String prerequisiteCode: prerequisiteCodes) {
+                Course prerequisite = resolvableCourses.get(prerequisiteCode);
+                if (prerequisite == null) {
+                    throw new BadFormatException("failed finding the requested prerequisite among all the loaded courses!");
+                }
+                prerequisites.add(prerequisite);
+            }
+            prerequisitesPerCourse.add(prerequisites);
+        }
+
+        // the prerequisites every course would have once the changes are applied, by code, checked for cycles
+        // before any live course is changed
+        Map<String, List<Course>> stagedPrerequisites = new HashMap<>();
+        for (Course course: this.coursesByCode.values()) {
+            synchronized (EnrollmentManager.lockFor(course)) {
+                stagedPrerequisites.put(course.getCode(), new ArrayList<>(course.getPrerequisites()));
+            }
+        }
+        for (int i = 0; i < parsedCourses.size(); i++) {
+            stagedPrerequisites.put(parsedCourses.get(i).getCode(), prerequisitesPerCourse.get(i));
+        }
+        Map<String, Boolean> visitedCodes = new HashMap<>();
+        for (String code: new ArrayList<>(stagedPrerequisites.keySet())) {
+            checkForCycle(code, stagedPrerequisites, visitedCodes);
+        }
+
+        int changes = 0;
+        for (int i = 0; i < parsedCourses.size(); i++) {
+            Course parsedCourse = parsedCourses.get(i);
+            Course course = this.coursesByCode.get(parsedCourse.getCode());
+            if (course == null) {
+                parsedCourse.setPrerequisites(prerequisitesPerCourse.get(i));
+                this.coursesByCode.put(parsedCourse.getCode(), parsedCourse);
+                changes++;
+                continue;
+            }
+            synchronized (EnrollmentManager.lockFor(course)) {
+                if (applyCourseChange(course, parsedCourse, prerequisitesPerCourse.get(i))) {
+                    changes++;
+                }
+            }
+        }
+        this.courseBlockHashes = blockHashes;
+        return changes;
+    }
+
+    // walks the staged prerequisites of a course depth first, failing if the walk comes back to a course it is
+    // still inside of. visitedCodes holds false for the courses being walked and true for the ones walked through
+    private static void checkForCycle(String code, Map<String, List<Course>> stagedPrerequisites, Map<String, Boolean> visitedCodes) throws BadFormatException {
+        Boolean walkedThrough = visitedCodes.get(code);
+        if (walkedThrough != null) {
+            if (!walkedThrough) {
+                throw new BadFormatException("course '" + code + "' is a prerequisite of itself!");
+            }
+            return;
+        }
+        visitedCodes.put(code, false);
+        List<Course> prerequisites = stagedPrerequisites.get(code);
+        if (prerequisites != null) {
+            for (Course prerequisite: prerequisites) {
+                if (!stagedPrerequisites.containsKey(prerequisite.getCode())) {
+                    // a course the watcher does not know of, it can only lead back through its own prerequisites
+                    stagedPrerequisites.put(prerequisite.getCode(), new ArrayList<>(prerequisite.getPrerequisites()));
+                }
+                checkForCycle(prerequisite.getCode(), stagedPrerequisites, visitedCodes);
+            }
+        }
+        visitedCodes.put(code, true);
+    }
+
+    // sets the attributes of a live course that differ from the parsed one, must hold the lock of the course
+    private static boolean applyCourseChange(Course course, Course parsedCourse, List<Course> prerequisites) {
+        boolean changed = false;
+        if (!course.getTitle().equals(parsedCourse.getTitle())) {
+            course.setTitle(parsedCourse.getTitle());
+            changed = true;
+        }
+        if (course.getCreditPoints() != parsedCourse.getCreditPoints()) {
+            course.setCreditPoints(parsedCourse.getCreditPoints());
+            changed = true;
+        }
+        if (course.getCapacity() != parsedCourse.getCapacity()) {
+            try {
+                course.setCapacity(parsedCourse.getCapacity());
+            } catch (CapacityTooSmallException e) {
+                // the parsed course was constructed with this capacity, so it cannot be too small
+                throw new IllegalStateException(e);
+            }
+            changed = true;
+        }
+        if (!course.getPrerequisites().equals(prerequisites)) {
+            course.setPrerequisites(prerequisites);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // splits a file into blocks by the value of their key line, lines before the first key line belong to the first
+    // block just like they do when the file is loaded. a key that shows up twice keeps its first block, which is
+    // also the one the loaders keep
+    private static Map<String, String> splitBlocks(String filePath, String key) throws IOException {
+        Map<String, String> blocks = new LinkedHashMap<>();
+        StringBuilder leadingLines = new StringBuilder();
+        String currentKey = null;
+        StringBuilder currentBlock = leadingLines;
+
+        BufferedReader bufferedReader = new BufferedReader(new FileReader(filePath));
+        try {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                String[] parts = line.split(StudentFileLoader.KEY_VALUE_DELIMITER_PATTERN);
+                if (parts.length >= 2 && parts[0].equals(key)) {
+                    if (currentKey != null) {
+                        blocks.putIfAbsent(currentKey, currentBlock.toString());
+                        currentBlock = new StringBuilder();
+                    }
+                    currentKey = parts[1].trim();
+                }
+                currentBlock.append(line).append('\n');
+            }
+        } finally {
+            bufferedReader.close();
+        }
+        if (currentKey != null) {
+            blocks.putIfAbsent(currentKey, currentBlock.toString());
+        }
+        return blocks;
+    }
+
+    // returns the hash of every block
+    private static Map<String, Long> hashAll(Map<String, String> blocks) {
+        Map<String, Long> blockHashes = new HashMap<>();
+        for (Map.Entry<String, String> block: blocks.entrySet()) {
+            blockHashes.put(block.getKey(), hash(block.getValue()));
+        }
+        return blockHashes;
+    }
+
+    // a 64 bit FNV-1a hash of the block text, wide enough that two versions of a block practically never collide
+    private static long hash(String block) {
+        long hash = HASH_OFFSET_BASIS;
+        for (int i = 0; i < block.length(); i++) {
+            hash ^= block.charAt(i);
+            hash *= HASH_PRIME;
+        }
+        return hash;
+    }
+
+    private static Path directoryOf(String filePath) {
+        Path directory = Paths.get(filePath).toAbsolutePath().getParent();
+        return directory == null ? Paths.get(".").toAbsolutePath() : directory;
+    }
+}
@@ -0,0 +1,53 @@
+import java.time.LocalDateTime;
+
+// an enrollment clock that asks the system clock at most once per resolution period and hands out the same
+// timestamp in between, which is plenty for enrollment timestamps that are only reported to the minute
+public class CoarseEnrollmentClock implements EnrollmentClock {
+
+    // the amount of milliseconds a timestamp is reused for
+    private long resolutionMillis;
+    // the last timestamp that was read, together with the moment it was read
+    private volatile Tick lastTick;
+
+    // constructor
+    public CoarseEnrollmentClock(long resolutionMillis) {
+        setResolutionMillis(resolutionMillis);
+    }
+
+    // resolution getter
+    public long getResolutionMillis() {
+        return this.resolutionMillis;
+    }
+
+    // resolution setter
+    public void setResolutionMillis(long resolutionMillis) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("clock resolution must be a positive amount of milliseconds!");
+        }
+        this.resolutionMillis = resolutionMillis;
+    }
+
+    @Override
+    public LocalDateTime now() {
+        long currentMillis = System.currentTimeMillis();
+        Tick tick = this.lastTick;
+        if (tick == null || currentMillis - tick.readAtMillis >= getResolutionMillis() || currentMillis < tick.readAtMillis) {
+            // the cached timestamp expired (or the system clock went backwards), so read a new one
+            // two threads may both get here at the same time, which only costs an extra read
+            tick = new Tick(currentMillis, LocalDateTime.now());
+            this.lastTick = tick;
+        }
+        return tick.timestamp;
+    }
+
+    // a timestamp and the moment it was read, kept in one object so both are always replaced together
+    private static class Tick {
+        private final long readAtMillis;
+        private final LocalDateTime timestamp;
+
+        private Tick(long readAtMillis, LocalDateTime timestamp) {
+            this.readAtMillis = readAtMillis;
+            this.timestamp = timestamp;
+        }
+    }
+}
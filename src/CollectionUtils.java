@@ -1,8 +1,22 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public class CollectionUtils {
 
+    // the least amount of items worth splitting between threads, smaller lists are handled by the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
     public static <T extends Comparable<T>> T max(List<T> list) {
         if (list == null) {
             throw new NullPointerException("list cannot be null!");
@@ -27,42 +41,349 @@ public class CollectionUtils {
         return maxItem;
     }
 
+    // same as max, with the items compared by all the processors at once, on lists of at least PARALLEL_THRESHOLD items
+    // when several items are the largest, the first of them is returned, just like max does
+    public static <T extends Comparable<T>> T parallelMax(List<T> list) {
+        return parallelMax(list, Comparator.naturalOrder());
+    }
+
+    // same as parallelMax, with the items compared by the given comparator
+    public static <T> T parallelMax(List<T> list, Comparator<? super T> comparator) {
+        if (list == null) {
+            throw new NullPointerException("list cannot be null!");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator cannot be null!");
+        }
+        T[] items = nonNullItems(list);
+        if (items.length == 0) {
+            throw new IllegalArgumentException("list cannot be empty");
+        }
+        Stream<T> itemStream = Arrays.stream(items);
+        if (items.length >= PARALLEL_THRESHOLD) {
+            // the common fork-join pool splits the array and combines the halves in order
+            itemStream = itemStream.parallel();
+        }
+        // keep the earlier item on a tie
+        return itemStream.reduce((largest, item) -> comparator.compare(largest, item) < 0 ? item : largest).get();
+    }
+
+    // returns the smallest item, using all the processors on lists of at least PARALLEL_THRESHOLD items
+    // when several items are the smallest, the first of them is returned
+    public static <T extends Comparable<T>> T parallelMin(List<T> list) {
+        return parallelMin(list, Comparator.naturalOrder());
+    }
+
+    // same as parallelMin, with the items compared by the given comparator
+    public static <T> T parallelMin(List<T> list, Comparator<? super T> comparator) {
+        if (comparator == null) {
+            throw new NullPointerException("comparator cannot be null!");
+        }
+        return parallelMax(list, Collections.reverseOrder(comparator));
+    }
+
+    // returns the largest value, using all the processors on arrays of at least PARALLEL_THRESHOLD values
+    public static int parallelMax(int[] values) {
+        return valueStream(values).max().orElseThrow(() -> new IllegalArgumentException("array cannot be empty"));
+    }
+
+    // returns the smallest value, using all the processors on arrays of at least PARALLEL_THRESHOLD values
+    public static int parallelMin(int[] values) {
+        return valueStream(values).min().orElseThrow(() -> new IllegalArgumentException("array cannot be empty"));
+    }
+
+    // returns the largest value, using all the processors on arrays of at least PARALLEL_THRESHOLD values
+    public static long parallelMax(long[] values) {
+        return valueStream(values).max().orElseThrow(() -> new IllegalArgumentException("array cannot be empty"));
+    }
+
+    // returns the smallest value, using all the processors on arrays of at least PARALLEL_THRESHOLD values
+    public static long parallelMin(long[] values) {
+        return valueStream(values).min().orElseThrow(() -> new IllegalArgumentException("array cannot be empty"));
+    }
+
+    // returns the k largest items by the comparator, largest first, items that compare equal keep their list order
+    // only the best k items seen so far are kept, as a heap whose root is the worst of them, so every other item costs
+    // a single comparison with the root and at most log(k) more when it replaces it - O(n log k) in total
+    public static <T> List<T> topK(List<T> list, int k, Comparator<? super T> comparator) {
+        if (list == null) {
+            throw new NullPointerException("list cannot be null!");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator cannot be null!");
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative!");
+        }
+        T[] items = nonNullItems(list);
+        int size = Math.min(k, items.length);
+        // the heap holds positions in the list, the later of two equal items is the worse one
+        PositionComparator worseFirst = (first, second) -> {
+            int comparison = comparator.compare(items[first], items[second]);
+            return comparison != 0 ? comparison : Integer.compare(second, first);
+        };
+        int[] heap = new int[size];
+        for (int position = 0; position < items.length; position++) {
+            if (position < size) {
+                heap[position] = position;
+                siftUp(heap, position, worseFirst);
+            } else if (size > 0 && worseFirst.compare(heap[0], position) < 0) {
+                heap[0] = position;
+                siftDown(heap, size, worseFirst);
+            }
+        }
+        // take the worst item out of the heap every time, from the last place of the result to the first
+        List<T> top = new ArrayList<>(Collections.nCopies(size, null));
+        for (int remaining = size; remaining > 0; remaining--) {
+            top.set(remaining - 1, items[heap[0]]);
+            heap[0] = heap[remaining - 1];
+            siftDown(heap, remaining - 1, worseFirst);
+        }
+        return top;
+    }
+
+    // returns the k largest values, largest first
+    public static int[] topK(int[] values, int k) {
+        if (values == null) {
+            throw new NullPointerException("array cannot be null!");
+        }
+        long[] top = topK(Arrays.stream(values).asLongStream().toArray(), k);
+        return Arrays.stream(top).mapToInt(value -> (int) value).toArray();
+    }
+
+    // returns the k largest values, largest first
+    // the heap is a plain long array whose root is the smallest of the best k values seen so far
+    public static long[] topK(long[] values, int k) {
+        if (values == null) {
+            throw new NullPointerException("array cannot be null!");
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative!");
+        }
+        int size = Math.min(k, values.length);
+        long[] heap = new long[size];
+        for (int i = 0; i < values.length; i++) {
+            if (i < size) {
+                // sift the new value up towards the root
+                int child = i;
+                while (child > 0 && heap[(child - 1) / 2] > values[i]) {
+                    heap[child] = heap[(child - 1) / 2];
+                    child = (child - 1) / 2;
+                }
+                heap[child] = values[i];
+            } else if (size > 0 && values[i] > heap[0]) {
+                // replace the root and sift it down
+                int parent = 0;
+                while (true) {
+                    int child = 2 * parent + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heap[child + 1] < heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] >= values[i]) {
+                        break;
+                    }
+                    heap[parent] = heap[child];
+                    parent = child;
+                }
+                heap[parent] = values[i];
+            }
+        }
+        // the heap holds the right values, they only have to be put in order
+        Arrays.sort(heap);
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            long value = heap[i];
+            heap[i] = heap[j];
+            heap[j] = value;
+        }
+        return heap;
+    }
+
+    // moves the entry at the given index of the heap up until its parent is not worse than it
+    private static void siftUp(int[] heap, int index, PositionComparator worseFirst) {
+        int entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (worseFirst.compare(heap[parent], entry) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = entry;
+    }
+
+    // moves the root of the heap down until none of its children is worse than it
+    private static void siftDown(int[] heap, int size, PositionComparator worseFirst) {
+        if (size == 0) {
+            return;
+        }
+        int entry = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && worseFirst.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (worseFirst.compare(heap[child], entry) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = entry;
+    }
+
+    // takes the items out of the list once, the list may be synchronized or may not have a fast get
+    private static <T> T[] nonNullItems(List<T> list) {
+        @SuppressWarnings("unchecked")
+        T[] items = (T[]) list.toArray();
+        for (T item: items) {
+            if (item == null) {
+                throw new IllegalArgumentException("list cannot contain null items");
+            }
+        }
+        return items;
+    }
+
+    // returns a stream over the values, a parallel one for arrays of at least PARALLEL_THRESHOLD values
+    private static IntStream valueStream(int[] values) {
+        if (values == null) {
+            throw new NullPointerException("array cannot be null!");
+        }
+        IntStream valueStream = Arrays.stream(values);
+        return values.length >= PARALLEL_THRESHOLD ? valueStream.parallel() : valueStream;
+    }
+
+    // returns a stream over the values, a parallel one for arrays of at least PARALLEL_THRESHOLD values
+    private static LongStream valueStream(long[] values) {
+        if (values == null) {
+            throw new NullPointerException("array cannot be null!");
+        }
+        LongStream valueStream = Arrays.stream(values);
+        return values.length >= PARALLEL_THRESHOLD ? valueStream.parallel() : valueStream;
+    }
+
+    // returns every item that appears more than once, each one once, in the order of its first appearance
+    // null items are skipped, to stay consistent with the java.lang.Object javadoc :
+    // For any non-null reference value x, x.equals(null) should return false.
     public static <T> List<T> findDuplicates(List<T> list) {
+        return findDuplicates(list, Function.identity());
+    }
+
+    // same as findDuplicates, but two items are the same when the key extractor gives them equal keys, so items can
+    // be compared by a field of theirs (findDuplicates(students, Person::getId)) without relying on their equals
+    // items whose key is null are skipped just like null items
+    public static <T, K> List<T> findDuplicates(List<T> list, Function<? super T, ? extends K> keyExtractor) {
         if (list == null) {
             throw new NullPointerException("list cannot be null!");
         }
-        if (list.isEmpty()) {
-            return new ArrayList<>();
+        if (keyExtractor == null) {
+            throw new NullPointerException("key extractor cannot be null!");
+        }
+        // every item is looked up in a hash map twice, instead of being compared to every other item
+        return collectDuplicates(list, keyExtractor, new HashMap<>());
+    }
+
+    // same as findDuplicates, but two items are the same when the comparator says they are equal
+    public static <T> List<T> findDuplicates(List<T> list, Comparator<? super T> comparator) {
+        if (list == null) {
+            throw new NullPointerException("list cannot be null!");
+        }
+        if (comparator == null) {
+            throw new NullPointerException("comparator cannot be null!");
+        }
+        return collectDuplicates(list, Function.identity(), new TreeMap<>(comparator));
+    }
+
+    // same as findDuplicates, with the items counted by all the processors at once
+    public static <T> List<T> findDuplicatesParallel(List<T> list) {
+        return findDuplicatesParallel(list, Function.identity());
+    }
+
+    // same as findDuplicates with a key extractor, with the items counted by all the processors at once
+    // every key is mapped to the position of its first item and whether it was seen again, so the duplicates can be
+    // put back in the order of their first appearance no matter which thread met which item first
+    public static <T, K> List<T> findDuplicatesParallel(List<T> list, Function<? super T, ? extends K> keyExtractor) {
+        if (list == null) {
+            throw new NullPointerException("list cannot be null!");
+        }
+        if (keyExtractor == null) {
+            throw new NullPointerException("key extractor cannot be null!");
+        }
+        // take the items out of the list once, the list may be synchronized or may not have a fast get
+        Object[] items = list.toArray();
+        if (items.length < PARALLEL_THRESHOLD) {
+            return findDuplicates(list, keyExtractor);
+        }
+
+        // a first position p is kept as p * 2, plus 1 once the key was seen again
+        ConcurrentHashMap<K, Long> firstPositions = new ConcurrentHashMap<>();
+        IntStream.range(0, items.length).parallel().forEach(position -> {
+            @SuppressWarnings("unchecked")
+            T item = (T) items[position];
+            if (item == null) {
+                return;
+            }
+            K key = keyExtractor.apply(item);
+            if (key == null) {
+                return;
+            }
+            firstPositions.merge(key, (long) position * 2, (seen, current) -> Math.min(seen, current) | 1);
+        });
+
+        long[] duplicatePositions = firstPositions.values().stream()
+                .mapToLong(Long::longValue)
+                .filter(firstPosition -> (firstPosition & 1) != 0)
+                .map(firstPosition -> firstPosition >> 1)
+                .sorted()
+                .toArray();
+        List<T> duplicates = new ArrayList<>(duplicatePositions.length);
+        for (long position: duplicatePositions) {
+            @SuppressWarnings("unchecked")
+            T item = (T) items[(int) position];
+            duplicates.add(item);
         }
+        return duplicates;
+    }
 
+    // counts the keys of the items in the given map, and then collects the first item of every key counted more than
+    // once, in the order of the list
+    private static <T, K> List<T> collectDuplicates(List<T> list, Function<? super T, ? extends K> keyExtractor, Map<K, Integer> occurrences) {
         List<T> duplicates = new ArrayList<>();
-        T firstItem = null, secondItem = null;
-        // no time complexity requirements were given in the assignment, so iterate over all the elements
-        // and compare every element to every element except for himself
-        for (int i = 0; i < list.size(); i++) {
-            firstItem = list.get(i);
-            if (firstItem == null) {
-                // skip when comparing nulls, to stay consistent with the java.lang.Object javadoc :
-                // For any non-null reference value x, x.equals(null) should return false.
+        if (list.isEmpty()) {
+            return duplicates;
+        }
+        for (T item: list) {
+            if (item == null) {
                 continue;
             }
-            for (int j = 0; j < list.size(); j++) {
-                secondItem = list.get(j);
-                if (secondItem == null) {
-                    // skip when comparing nulls, to stay consistent with the java.lang.Object javadoc :
-                    // For any non-null reference value x, x.equals(null) should return false.
-                    continue;
-                }
-                if (j == i) {
-                    // skip when comparing an element to itself
-                    continue;
-                }
-                if (firstItem.equals(secondItem) && !duplicates.contains(firstItem)) {
-                    // make sure to only add an item to the duplicates list once!
-                    duplicates.add(firstItem);
-                }
+            K key = keyExtractor.apply(item);
+            if (key != null) {
+                occurrences.merge(key, 1, Integer::sum);
+            }
+        }
+        for (T item: list) {
+            if (item == null) {
+                continue;
+            }
+            K key = keyExtractor.apply(item);
+            if (key != null && occurrences.get(key) > 1) {
+                duplicates.add(item);
+                // make sure to only add an item to the duplicates list once!
+                occurrences.put(key, 0);
             }
         }
         return duplicates;
     }
+
+    // compares two positions of a list without boxing them
+    private interface PositionComparator {
+        int compare(int first, int second);
+    }
 }
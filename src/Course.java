@@ -2,22 +2,35 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // implements Serializable to make Enrollment Serializable
 public class Course implements Serializable {
 
+    // the serialVersionUID the class always had, so files saved before hashCode was added still load
+    private static final long serialVersionUID = 375912003190443185L;
+
     // minimum capacity for a course to handle CapacityTooSmallException
     public static final int MINIMUM_CAPACITY_REQUIREMENT = 10;
+    // the attributes are volatile since the catalog watcher changes them while others read them
     // course code
-    private String code;
+    private volatile String code;
     // course title
-    private String title;
+    private volatile String title;
     // course credit points
-    private int creditPoints;
+    private volatile int creditPoints;
     // course capacity - the maximum amount of students that can enroll to this course
-    private int capacity;
-    // list of prerequisite courses for this course
-    private List<Course> prerequisites;
+    private volatile int capacity;
+    // list of prerequisite courses for this course, never changed once set - a change builds a new list and sets it,
+    // so readers that take no lock always see a complete list
+    private volatile List<Course> prerequisites;
+    // bumped every time the prerequisites of this course change after it was created, so anything computed from the
+    // prerequisite graph (like PrerequisiteGraph) can tell it went stale, creating a course does not bump it, so new
+    // courses never make existing graphs stale
+    private transient volatile AtomicInteger prerequisiteVersion = new AtomicInteger();
+    // bumped right after the prerequisite version of any course, so a single read tells whether the prerequisites of
+    // some course changed at all
+    private static final AtomicInteger PREREQUISITE_STAMP = new AtomicInteger();
 
     // constructor
     public Course(String code, String title, int creditPoints, int capacity, List<Course> prerequisites) throws CapacityTooSmallException {
@@ -25,7 +38,18 @@ public class Course implements Serializable {
         setTitle(title);
         setCreditPoints(creditPoints);
         setCapacity(capacity);
-        setPrerequisites(prerequisites);
+        this.prerequisites = withoutDuplicates(prerequisites);
+    }
+
+    // prerequisite version getter
+    public int getPrerequisiteVersion() {
+        return prerequisiteVersion().get();
+    }
+
+    // returns the stamp of the prerequisites of all the courses, it changes whenever the prerequisites of any course
+    // change, and stays the same when courses are created
+    public static int getPrerequisiteStamp() {
+        return PREREQUISITE_STAMP.get();
     }
 
     // course code getter
@@ -48,11 +72,21 @@ public class Course implements Serializable {
         return this.capacity;
     }
 
-    // prerequisite list getter - returns an unmodifiable copy to prevent user affecting the list from outside
+    // prerequisite list getter - the list is unmodifiable to prevent user affecting it from outside
     public List<Course> getPrerequisites() {
         return Collections.unmodifiableList(this.prerequisites);
     }
 
+    // amount of prerequisite courses getter
+    public int getPrerequisiteCount() {
+        return this.prerequisites.size();
+    }
+
+    // prerequisite course getter by its position in the prerequisite list
+    public Course getPrerequisite(int index) {
+        return this.prerequisites.get(index);
+    }
+
     // course code setter
     public void setCode(String courseCode) {
         if (courseCode == null) {
@@ -61,7 +95,11 @@ public class Course implements Serializable {
         if (courseCode.isBlank()) {
             throw new IllegalArgumentException("course code cannot be empty!");
         }
+        String previousCode = this.code;
         this.code = courseCode.trim();
+        if (previousCode != null && !previousCode.equals(this.code)) {
+            CatalogVersion.bump();
+        }
     }
 
     // course title setter
@@ -72,7 +110,11 @@ public class Course implements Serializable {
         if (courseTitle.isBlank()) {
             throw new IllegalArgumentException("course title cannot be empty!");
         }
+        String previousTitle = this.title;
         this.title = courseTitle.trim();
+        if (previousTitle != null && !previousTitle.equals(this.title)) {
+            CatalogVersion.bump();
+        }
     }
 
     // course credit points setter
@@ -95,19 +137,15 @@ public class Course implements Serializable {
         this.capacity = courseCapacity;
     }
 
-    // course prerequisite list setter
-    public void setPrerequisites(List<Course> coursePrerequisites) {
-        if (coursePrerequisites == null) {
-            throw new NullPointerException("array of prerequisites cannot be null!");
-        }
-        this.prerequisites = new ArrayList<>();
-        for (Course prerequisite: coursePrerequisites) {
-            addPrerequisite(prerequisite);
-        }
+    // course prerequisite list setter, the new list is set at once and only then the version and the stamp are bumped
+    public synchronized void setPrerequisites(List<Course> coursePrerequisites) {
+        this.prerequisites = withoutDuplicates(coursePrerequisites);
+        prerequisiteVersion().incrementAndGet();
+        PREREQUISITE_STAMP.incrementAndGet();
     }
 
     // helper method to prevent duplicate prerequisite courses
-    public void addPrerequisite(Course prerequisite) {
+    public synchronized void addPrerequisite(Course prerequisite) {
         if (prerequisite == null) {
             throw new NullPointerException("prerequisite course cannot be null!");
         }
@@ -115,7 +153,43 @@ public class Course implements Serializable {
             // prevent duplicates
             return;
         }
-        this.prerequisites.add(prerequisite);
+        List<Course> coursePrerequisites = new ArrayList<>(this.prerequisites);
+        coursePrerequisites.add(prerequisite);
+        this.prerequisites = Collections.unmodifiableList(coursePrerequisites);
+        prerequisiteVersion().incrementAndGet();
+        PREREQUISITE_STAMP.incrementAndGet();
+    }
+
+    // returns an unmodifiable copy of the prerequisites with every course only once
+    private static List<Course> withoutDuplicates(List<Course> coursePrerequisites) {
+        if (coursePrerequisites == null) {
+            throw new NullPointerException("array of prerequisites cannot be null!");
+        }
+        List<Course> distinctPrerequisites = new ArrayList<>();
+        for (Course prerequisite: coursePrerequisites) {
+            if (prerequisite == null) {
+                throw new NullPointerException("prerequisite course cannot be null!");
+            }
+            if (!distinctPrerequisites.contains(prerequisite)) {
+                distinctPrerequisites.add(prerequisite);
+            }
+        }
+        return Collections.unmodifiableList(distinctPrerequisites);
+    }
+
+    // the version counter is transient (which also keeps it out of the serialized form of Course), so a deserialized
+    // course gets a fresh one the first time it is needed
+    private AtomicInteger prerequisiteVersion() {
+        AtomicInteger version = this.prerequisiteVersion;
+        if (version == null) {
+            synchronized (this) {
+                if (this.prerequisiteVersion == null) {
+                    this.prerequisiteVersion = new AtomicInteger();
+                }
+                version = this.prerequisiteVersion;
+            }
+        }
+        return version;
     }
 
     // helper method to determine whether this course has a specific prerequisite
@@ -138,6 +212,12 @@ public class Course implements Serializable {
         return false;
     }
 
+    // must agree with equals, so only the code is hashed
+    @Override
+    public int hashCode() {
+        return getCode().hashCode();
+    }
+
     @Override
     public String toString() {
         return "Course{" +
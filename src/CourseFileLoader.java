@@ -1,9 +1,24 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class CourseFileLoader {
 
@@ -27,10 +42,18 @@ public class CourseFileLoader {
 
     // list that holds the courses successfully loaded so far
     private List<Course> loadedCourses;
+    // the same courses by code, so telling whether a course was already loaded and finding prerequisites does not
+    // go over the whole list
+    private Map<String, Course> loadedCoursesByCode;
     // list that contains lists of prerequisite codes for every course that was loaded so far
     // such that prerequisitesPerCourse.get(i) is the list of prerequisites for loadedCourses.get(i)
     private List<List<String>> prerequisitesPerCourse;
 
+    // the prerequisite graph of the loaded courses, built once all the prerequisites were linked
+    private PrerequisiteGraph prerequisiteGraph;
+    // when set, every parsed course is handed to it instead of being added to the loaded courses (see forEach)
+    private StreamingCourses streamingCourses;
+
     // the variables below describe all the parser keys and delimiters
 
     // delimiter between any {key:value} pair
@@ -48,6 +71,12 @@ public class CourseFileLoader {
     public static final String CAPACITY_KEY = "CAPACITY";
     // course prerequisites key
     public static final String PREREQUISITES_KEY = "PREREQUISITES";
+    // the same keys as bytes, for the memory mapped parsing
+    private static final byte[] CODE_KEY_BYTES = CODE_KEY.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TITLE_KEY_BYTES = TITLE_KEY.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CREDITS_KEY_BYTES = CREDITS_KEY.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CAPACITY_KEY_BYTES = CAPACITY_KEY.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PREREQUISITES_KEY_BYTES = PREREQUISITES_KEY.getBytes(StandardCharsets.US_ASCII);
 
     // constructor
     public CourseFileLoader() {
@@ -63,9 +92,23 @@ public class CourseFileLoader {
     // instead of a setter, we clear and initialize these lists for every new loader
     public void clearLoadedCourses() {
         this.loadedCourses = new ArrayList<>();
+        this.loadedCoursesByCode = new HashMap<>();
         this.prerequisitesPerCourse = new ArrayList<>();
     }
 
+    // returns the loaded course with the given code, or null if there is none
+    public Course getCourseByCode(String code) {
+        if (code == null) {
+            throw new NullPointerException("course code cannot be null!");
+        }
+        return this.loadedCoursesByCode.get(code);
+    }
+
+    // prerequisite graph of the loaded courses getter, null until a file was loaded
+    public PrerequisiteGraph getPrerequisiteGraph() {
+        return this.prerequisiteGraph;
+    }
+
     // list of lists of prerequisite codes per course getter
     public List<List<String>> getPrerequisitesPerCourse() {
         return Collections.unmodifiableList(this.prerequisitesPerCourse);
@@ -90,8 +133,12 @@ public class CourseFileLoader {
                     // catch any CapacityTooSmallException and re-throw it as a BadFormatException back to Main
                     throw new BadFormatException(e);
                 }
-                addLoadedCourse(course);
-                addLoadedPrerequisites(this.parsedPrerequisites);
+                if (this.streamingCourses != null) {
+                    this.streamingCourses.add(course, this.parsedPrerequisites);
+                } else {
+                    addLoadedCourse(course);
+                    addLoadedPrerequisites(this.parsedPrerequisites);
+                }
                 prepareToReadNextCourseBlock();
             }
         }
@@ -102,11 +149,13 @@ public class CourseFileLoader {
         if (course == null) {
             throw new NullPointerException("course cannot be null!");
         }
-        if (getLoadedCourses().contains(course)) {
+        if (this.loadedCoursesByCode.putIfAbsent(course.getCode(), course) != null) {
             // prevent duplication
             return;
         }
         this.loadedCourses.add(course);
+        // hand out the dense course id at load time, so enrolling does not have to
+        CatalogIds.internCourse(course);
     }
 
     // helper method to add loaded prerequisites for a specific course
@@ -176,77 +225,171 @@ public class CourseFileLoader {
     // if found among the loaded courses, returns a Course that corresponds to the given code, or null otherwise
     // this method is used when adding prerequisite courses to our already loaded and constructed courses
     private Course findCourseByCode(String courseCode) {
-        for (Course course: getLoadedCourses()) {
-            if (course.getCode().equals(courseCode)) {
-                return course;
+        return this.loadedCoursesByCode.get(courseCode);
+    }
+
+    public List<Course> load(String filePath) throws IOException, BadFormatException {
+        return load(new FileReader(filePath));
+    }
+
+    // same as load, but the courses are read from any reader, which is closed once done
+    public List<Course> load(Reader reader) throws IOException, BadFormatException {
+        parseLines(reader);
+        return finishLoading();
+    }
+
+    // same as load, but the prerequisites are not linked, so prerequisites that are not part of the text are fine
+    // getPrerequisitesPerCourse holds the prerequisite codes of every course instead
+    public List<Course> loadUnlinked(Reader reader) throws IOException, BadFormatException {
+        parseLines(reader);
+        finishParsing();
+        return getLoadedCourses();
+    }
+
+    // parses every line of the reader and closes it
+    private void parseLines(Reader reader) throws IOException, BadFormatException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        try {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                parseLine(line);
             }
+        } finally {
+            bufferedReader.close();
         }
-        return null;
     }
 
-    public List<Course> load(String filePath) throws IOException, BadFormatException {
+    // hands every course of the file to the consumer once its block was parsed and all of its prerequisites were
+    // handed to the consumer, so the consumer always sees the prerequisites of a course before the course itself,
+    // already linked. a course that comes before one of its prerequisites in the file is held back until the
+    // prerequisite shows up, and a course whose prerequisites never show up fails the load at the end of the file
+    // only the courses are kept around, which are few next to the students and enrollments they are used with
+    // a course may reach the consumer before an error further down the file is found
+    public void forEach(String filePath, Consumer<Course> consumer) throws IOException, BadFormatException {
+        if (consumer == null) {
+            throw new NullPointerException("course consumer cannot be null!");
+        }
         BufferedReader bufferedReader = new BufferedReader(new FileReader(filePath));
+        CourseFileLoader streamingLoader = streamingLoader(consumer);
+        try {
+            while (streamingLoader.parseNextLine(bufferedReader)) {
+                // every line was handled by parseNextLine
+            }
+        } finally {
+            bufferedReader.close();
+        }
+    }
 
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-            if (line.isBlank()) {
-                // skip blank lines
-                continue;
+    // same as forEach, but the file is only read as far as the returned stream is consumed, the stream must be closed
+    // to close the file. format errors are thrown from the stream as UncheckedBadFormatException
+    public Stream<Course> stream(String filePath) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(new FileReader(filePath));
+        Deque<Course> parsedCourses = new ArrayDeque<>();
+        CourseFileLoader streamingLoader = streamingLoader(parsedCourses::add);
+
+        Iterator<Course> iterator = new Iterator<Course>() {
+            // set once the end of the file was reached
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                while (parsedCourses.isEmpty() && !this.finished) {
+                    try {
+                        this.finished = !streamingLoader.parseNextLine(bufferedReader);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (BadFormatException e) {
+                        throw new UncheckedBadFormatException(e);
+                    }
+                }
+                return !parsedCourses.isEmpty();
             }
 
-            String[] parts = line.split(KEY_VALUE_DELIMITER_PATTERN);
-            if (parts.length < 2) {
-                // line was not delimited properly or a value is missing after the delimiter
-                throw new BadFormatException("course file lines should be delimited with '" + KEY_VALUE_DELIMITER_PATTERN + "'!");
+            @Override
+            public Course next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return parsedCourses.poll();
             }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        bufferedReader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    // returns a loader that hands the courses it parses to the consumer
+    private static CourseFileLoader streamingLoader(Consumer<Course> consumer) {
+        CourseFileLoader streamingLoader = new CourseFileLoader();
+        streamingLoader.streamingCourses = new StreamingCourses(consumer);
+        return streamingLoader;
+    }
 
-            switch (parts[0]) {
-                case CODE_KEY:
-                    // if we get here, we try adding a new course to our loaded courses
-                    // if it's our first time here, no course will be added
-                    // if it's not our first time here, then it means we landed on a CODE_KEY while holding onto another parsedCode
-                    // so it must mean we finished an entire course block
-                    maybeAddParsedCourseOrThrow("some course parameters are missing after reading a full course block!");
-                    // parse course code
-                    this.parsedCode = parseStringValueOrThrow(parts[1], "failed parsing course code!");
-                    break;
-                case TITLE_KEY:
-                    // parse course title
-                    this.parsedTitle = parseStringValueOrThrow(parts[1], "failed parsing course title!");
-                    break;
-                case CREDITS_KEY:
-                    // parse course credits
-                    this.parsedCredits = parseIntValueOrThrow(parts[1], "failed parsing course credit points!");
-                    break;
-                case CAPACITY_KEY:
-                    // parse course capacity
-                    this.parsedCapacity = parseIntValueOrThrow(parts[1], "failed parsing course capacity!");
-                    break;
-                case PREREQUISITES_KEY:
-                    // parse course prerequisite but put them aside in out list of lists to be used later
-                    this.parsedPrerequisites = parseStringListValueOrThrow(parts[1], PREREQUISITE_LIST_DELIMITER,"failed parsing list of prerequisites!");
-                    break;
-                default:
-                    // unknown key
-                    throw new BadFormatException("non-empty course file lines must start with: " +
-                            CODE_KEY + ", " +
-                            TITLE_KEY + ", " +
-                            CREDITS_KEY + ", " +
-                            CAPACITY_KEY + " or " +
-                            PREREQUISITES_KEY + "!");
+    // parses the next line of the file for a streaming loader, returns false once the end of the file was reached
+    // and every course was handed to the consumer
+    private boolean parseNextLine(BufferedReader bufferedReader) throws IOException, BadFormatException {
+        String line = bufferedReader.readLine();
+        if (line == null) {
+            // same as in load, the last course block is only added at the end of the file
+            maybeAddParsedCourseOrThrow("unexpected end of file, some course parameters are missing!");
+            this.streamingCourses.finish();
+            return false;
+        }
+        parseLine(line);
+        return true;
+    }
+
+    // same as load, but the file is memory mapped and scanned byte by byte, so keys, numbers and the line itself never
+    // become strings - only the values we keep do. accepts and rejects exactly the same files as load
+    public List<Course> loadMapped(String filePath) throws IOException, BadFormatException {
+        ByteBuffer buffer = CatalogByteParser.map(filePath);
+        if (buffer == null) {
+            // too large to be mapped at once
+            return load(filePath);
+        }
+        parseBytes(buffer, 0, buffer.limit());
+
+        return finishLoading();
+    }
+
+    // same as loadMapped, but the parsed courses are also written to a snapshot next to the file (see CatalogSnapshot),
+    // and as long as the file does not change, later loads read the snapshot instead of parsing the file again
+    // the file is parsed on its own, so the snapshot holds exactly its courses and their prerequisites
+    public List<Course> loadCached(String filePath) throws IOException, BadFormatException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(filePath);
+        List<Course> courses = snapshot.readCourses();
+        if (courses == null) {
+            courses = new CourseFileLoader().loadMapped(filePath);
+            try {
+                snapshot.writeCourses(courses);
+            } catch (IOException e) {
+                // the snapshot is only a cache, the next load simply parses the file again
+            }
+        }
+        for (Course course: courses) {
+            addLoadedCourse(course);
+            List<String> prerequisiteCodes = new ArrayList<>();
+            for (Course prerequisite: course.getPrerequisites()) {
+                prerequisiteCodes.add(prerequisite.getCode());
             }
+            addLoadedPrerequisites(prerequisiteCodes);
         }
-        bufferedReader.close();
 
+        // the courses come already linked, and their prerequisites were checked for cycles when the file was parsed
+        this.prerequisiteGraph = new PrerequisiteGraph(getLoadedCourses());
+        return getLoadedCourses();
+    }
 
-        // if we get here, we probably reached the end of the file. now, since we must land on the CODE_KEY
-        // to add a new course, we check for it here because the file does not end with the CODE_KEY
-        maybeAddParsedCourseOrThrow("unexpected end of file, some course parameters are missing!");
+    // adds the last course block and links all the prerequisites, once the entire file was parsed
+    private List<Course> finishLoading() throws BadFormatException {
+        finishParsing();
 
         // here we take all the saved up prerequisites and add them to their respective courses
-        if (getLoadedCourses().size() != prerequisitesPerCourse.size()) {
-            throw new BadFormatException("failed parsing course file!");
-        }
         for (int i = 0; i < getPrerequisitesPerCourse().size(); i++) {
             for (int j = 0; j < getPrerequisitesPerCourse().get(i).size(); j++) {
                 Course prerequisite = findCourseByCode(prerequisitesPerCourse.get(i).get(j));
@@ -256,6 +399,262 @@ public class CourseFileLoader {
                 getLoadedCourses().get(i).addPrerequisite(prerequisite);
             }
         }
+
+        // build the prerequisite graph now, so a cyclic prerequisite is caught at load time
+        try {
+            this.prerequisiteGraph = new PrerequisiteGraph(getLoadedCourses());
+        } catch (IllegalArgumentException e) {
+            throw new BadFormatException(e);
+        }
         return getLoadedCourses();
     }
+
+    // adds the last course block once the entire file was parsed
+    private void finishParsing() throws BadFormatException {
+        // if we get here, we probably reached the end of the file. now, since we must land on the CODE_KEY
+        // to add a new course, we check for it here because the file does not end with the CODE_KEY
+        maybeAddParsedCourseOrThrow("unexpected end of file, some course parameters are missing!");
+
+        // every loaded course must have its own list of prerequisites, which is not the case when a course showed up twice
+        if (getLoadedCourses().size() != prerequisitesPerCourse.size()) {
+            throw new BadFormatException("failed parsing course file!");
+        }
+    }
+
+    // parses a single line of the course file
+    private void parseLine(String line) throws BadFormatException {
+        if (line.isBlank()) {
+            // skip blank lines
+            return;
+        }
+
+        String[] parts = line.split(KEY_VALUE_DELIMITER_PATTERN);
+        if (parts.length < 2) {
+            // line was not delimited properly or a value is missing after the delimiter
+            throw new BadFormatException("course file lines should be delimited with '" + KEY_VALUE_DELIMITER_PATTERN + "'!");
+        }
+
+        switch (parts[0]) {
+            case CODE_KEY:
+                // if we get here, we try adding a new course to our loaded courses
+                // if it's our first time here, no course will be added
+                // if it's not our first time here, then it means we landed on a CODE_KEY while holding onto another parsedCode
+                // so it must mean we finished an entire course block
+                maybeAddParsedCourseOrThrow("some course parameters are missing after reading a full course block!");
+                // parse course code
+                this.parsedCode = parseStringValueOrThrow(parts[1], "failed parsing course code!");
+                break;
+            case TITLE_KEY:
+                // parse course title
+                this.parsedTitle = parseStringValueOrThrow(parts[1], "failed parsing course title!");
+                break;
+            case CREDITS_KEY:
+                // parse course credits
+                this.parsedCredits = parseIntValueOrThrow(parts[1], "failed parsing course credit points!");
+                break;
+            case CAPACITY_KEY:
+                // parse course capacity
+                this.parsedCapacity = parseIntValueOrThrow(parts[1], "failed parsing course capacity!");
+                break;
+            case PREREQUISITES_KEY:
+                // parse course prerequisite but put them aside in out list of lists to be used later
+                this.parsedPrerequisites = parseStringListValueOrThrow(parts[1], PREREQUISITE_LIST_DELIMITER,"failed parsing list of prerequisites!");
+                break;
+            default:
+                // unknown key
+                throw unknownKeyException();
+        }
+    }
+
+    // parses every line of the given byte range, which must start at the beginning of a line
+    private void parseBytes(ByteBuffer buffer, int from, int to) throws BadFormatException {
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = CatalogByteParser.lineEnd(buffer, lineStart, to);
+            if (CatalogByteParser.isAscii(buffer, lineStart, lineEnd)) {
+                parseAsciiLine(buffer, lineStart, lineEnd);
+            } else {
+                // the byte level helpers only deal with ASCII, so anything else goes through the regular parsing
+                parseLine(CatalogByteParser.decodedString(buffer, lineStart, lineEnd));
+            }
+            lineStart = CatalogByteParser.nextLineStart(buffer, lineEnd, to);
+        }
+    }
+
+    // same as parseLine for an ASCII line, each step mirrors the string operation parseLine uses
+    private void parseAsciiLine(ByteBuffer buffer, int lineStart, int lineEnd) throws BadFormatException {
+        if (CatalogByteParser.isBlank(buffer, lineStart, lineEnd)) {
+            // skip blank lines
+            return;
+        }
+
+        // split drops trailing empty parts, so a line has less than 2 parts when it has no delimiter at all or
+        // when nothing but delimiters follows the first one
+        int delimiter = CatalogByteParser.indexOf(buffer, lineStart, lineEnd, CatalogByteParser.KEY_VALUE_DELIMITER);
+        if (delimiter < 0 || CatalogByteParser.consistsOf(buffer, delimiter + 1, lineEnd, CatalogByteParser.KEY_VALUE_DELIMITER)) {
+            throw new BadFormatException("course file lines should be delimited with '" + KEY_VALUE_DELIMITER_PATTERN + "'!");
+        }
+        // the value is the second part, everything after a second delimiter is ignored just like with split
+        int valueStart = delimiter + 1;
+        int valueEnd = CatalogByteParser.indexOf(buffer, valueStart, lineEnd, CatalogByteParser.KEY_VALUE_DELIMITER);
+        if (valueEnd < 0) {
+            valueEnd = lineEnd;
+        }
+
+        if (CatalogByteParser.matches(buffer, lineStart, delimiter, CODE_KEY_BYTES)) {
+            maybeAddParsedCourseOrThrow("some course parameters are missing after reading a full course block!");
+            this.parsedCode = parseAsciiStringValueOrThrow(buffer, valueStart, valueEnd, "failed parsing course code!");
+        } else if (CatalogByteParser.matches(buffer, lineStart, delimiter, TITLE_KEY_BYTES)) {
+            this.parsedTitle = parseAsciiStringValueOrThrow(buffer, valueStart, valueEnd, "failed parsing course title!");
+        } else if (CatalogByteParser.matches(buffer, lineStart, delimiter, CREDITS_KEY_BYTES)) {
+            this.parsedCredits = parseAsciiIntValueOrThrow(buffer, valueStart, valueEnd, "failed parsing course credit points!");
+        } else if (CatalogByteParser.matches(buffer, lineStart, delimiter, CAPACITY_KEY_BYTES)) {
+            this.parsedCapacity = parseAsciiIntValueOrThrow(buffer, valueStart, valueEnd, "failed parsing course capacity!");
+        } else if (CatalogByteParser.matches(buffer, lineStart, delimiter, PREREQUISITES_KEY_BYTES)) {
+            // prerequisite lists are rare, so they simply go through the regular list parsing
+            this.parsedPrerequisites = parseStringListValueOrThrow(CatalogByteParser.asciiString(buffer, valueStart, valueEnd),
+                    PREREQUISITE_LIST_DELIMITER, "failed parsing list of prerequisites!");
+        } else {
+            // unknown key
+            throw unknownKeyException();
+        }
+    }
+
+    // same as parseStringValueOrThrow for an ASCII range
+    private String parseAsciiStringValueOrThrow(ByteBuffer buffer, int from, int to, String errorMessage) throws BadFormatException {
+        if (CatalogByteParser.isBlank(buffer, from, to)) {
+            throw new BadFormatException(errorMessage);
+        }
+        int valueStart = CatalogByteParser.trimStart(buffer, from, to);
+        return CatalogByteParser.asciiString(buffer, valueStart, CatalogByteParser.trimEnd(buffer, valueStart, to));
+    }
+
+    // same as parseIntValueOrThrow for an ASCII range
+    private int parseAsciiIntValueOrThrow(ByteBuffer buffer, int from, int to, String errorMessage) throws BadFormatException {
+        if (CatalogByteParser.isBlank(buffer, from, to)) {
+            throw new BadFormatException(errorMessage);
+        }
+        int valueStart = CatalogByteParser.trimStart(buffer, from, to);
+        try {
+            return CatalogByteParser.parseInt(buffer, valueStart, CatalogByteParser.trimEnd(buffer, valueStart, to));
+        } catch (NumberFormatException e) {
+            throw new BadFormatException(errorMessage);
+        }
+    }
+
+    // the exception for a line with an unknown key
+    private BadFormatException unknownKeyException() {
+        return new BadFormatException("non-empty course file lines must start with: " +
+                CODE_KEY + ", " +
+                TITLE_KEY + ", " +
+                CREDITS_KEY + ", " +
+                CAPACITY_KEY + " or " +
+                PREREQUISITES_KEY + "!");
+    }
+
+    // links the courses of a streaming loader to their prerequisites and hands them to the consumer, holding back
+    // every course until all of its prerequisites were handed over
+    private static class StreamingCourses {
+        // where the courses go
+        private final Consumer<Course> consumer;
+        // every course handed to the consumer so far, by code
+        private final Map<String, Course> handedOverCourses = new HashMap<>();
+        // every course that is held back, by code
+        private final Map<String, WaitingCourse> waitingCourses = new HashMap<>();
+        // the held back courses waiting for every prerequisite code that was not handed over yet
+        private final Map<String, List<WaitingCourse>> waitingCoursesPerPrerequisite = new HashMap<>();
+
+        private StreamingCourses(Consumer<Course> consumer) {
+            this.consumer = consumer;
+        }
+
+        // takes a parsed course with the codes of its prerequisites, and hands it over as soon as possible
+        private void add(Course course, List<String> prerequisiteCodes) throws BadFormatException {
+            if (this.handedOverCourses.containsKey(course.getCode()) || this.waitingCourses.containsKey(course.getCode())) {
+                // load does not accept a course that shows up twice either
+                throw new BadFormatException("failed parsing course file!");
+            }
+            WaitingCourse waitingCourse = new WaitingCourse(course, prerequisiteCodes);
+            for (String prerequisiteCode: prerequisiteCodes) {
+                if (!this.handedOverCourses.containsKey(prerequisiteCode)) {
+                    waitingCourse.missingPrerequisites++;
+                    this.waitingCoursesPerPrerequisite.computeIfAbsent(prerequisiteCode, code -> new ArrayList<>()).add(waitingCourse);
+                }
+            }
+            if (waitingCourse.missingPrerequisites > 0) {
+                this.waitingCourses.put(course.getCode(), waitingCourse);
+                return;
+            }
+
+            // handing a course over may release courses that waited for it, which may release others in turn
+            Deque<WaitingCourse> readyCourses = new ArrayDeque<>();
+            readyCourses.add(waitingCourse);
+            while (!readyCourses.isEmpty()) {
+                WaitingCourse readyCourse = readyCourses.poll();
+                this.waitingCourses.remove(readyCourse.course.getCode());
+                link(readyCourse);
+                this.handedOverCourses.put(readyCourse.course.getCode(), readyCourse.course);
+                this.consumer.accept(readyCourse.course);
+
+                List<WaitingCourse> released = this.waitingCoursesPerPrerequisite.remove(readyCourse.course.getCode());
+                if (released != null) {
+                    for (WaitingCourse releasedCourse: released) {
+                        if (--releasedCourse.missingPrerequisites == 0) {
+                            readyCourses.add(releasedCourse);
+                        }
+                    }
+                }
+            }
+        }
+
+        // called at the end of the file, fails if some course is still held back
+        private void finish() throws BadFormatException {
+            if (this.waitingCourses.isEmpty()) {
+                return;
+            }
+            for (String prerequisiteCode: this.waitingCoursesPerPrerequisite.keySet()) {
+                if (!this.waitingCourses.containsKey(prerequisiteCode)) {
+                    throw new BadFormatException("failed finding the requested prerequisite among all the loaded courses!");
+                }
+            }
+            // every missing prerequisite is itself held back, so the held back courses depend on each other in a
+            // cycle - link them and let the prerequisite graph report it, the same way load does
+            for (WaitingCourse waitingCourse: this.waitingCourses.values()) {
+                link(waitingCourse);
+            }
+            List<Course> heldBackCourses = new ArrayList<>();
+            for (WaitingCourse waitingCourse: this.waitingCourses.values()) {
+                heldBackCourses.add(waitingCourse.course);
+            }
+            try {
+                new PrerequisiteGraph(heldBackCourses);
+            } catch (IllegalArgumentException e) {
+                throw new BadFormatException(e);
+            }
+            throw new BadFormatException("failed parsing course file!");
+        }
+
+        // adds the prerequisites of a course, all of them must have been parsed already
+        private void link(WaitingCourse waitingCourse) {
+            for (String prerequisiteCode: waitingCourse.prerequisiteCodes) {
+                Course prerequisite = this.handedOverCourses.get(prerequisiteCode);
+                if (prerequisite == null) {
+                    prerequisite = this.waitingCourses.get(prerequisiteCode).course;
+                }
+                waitingCourse.course.addPrerequisite(prerequisite);
+            }
+        }
+    }
+
+    // a parsed course, with the amount of its prerequisites that were not handed over yet
+    private static class WaitingCourse {
+        private final Course course;
+        private final List<String> prerequisiteCodes;
+        private int missingPrerequisites;
+
+        private WaitingCourse(Course course, List<String> prerequisiteCodes) {
+            this.course = course;
+            this.prerequisiteCodes = prerequisiteCodes;
+        }
+    }
 }
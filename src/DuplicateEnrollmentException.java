@@ -2,4 +2,9 @@ public class DuplicateEnrollmentException extends Exception {
     public DuplicateEnrollmentException(String message) {
         super(message);
     }
+
+    // when writableStackTrace is false the stack trace is never filled in, which makes the exception cheap to create
+    public DuplicateEnrollmentException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -3,6 +3,9 @@ import java.time.LocalDateTime;
 
 public class Enrollment implements Serializable {
 
+    // the serialVersionUID the class always had, so files saved before hashCode was added still load
+    private static final long serialVersionUID = 2073051878236241057L;
+
     // enrollment student
     private Student student;
     // enrollment course
@@ -70,6 +73,12 @@ public class Enrollment implements Serializable {
         return false;
     }
 
+    // must agree with equals, so the timestamp is left out of the hash as well
+    @Override
+    public int hashCode() {
+        return 31 * getStudent().hashCode() + getCourse().hashCode();
+    }
+
     @Override
     public String toString() {
         return "Enrollment{" +
@@ -0,0 +1,205 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// summary numbers of a set of enrollments, all gathered in a single pass over the enrollments:
+// the seats taken in every course, the credit points every student is enrolled to, and the enrollments of every day
+// the counters are int arrays indexed by dense ids the aggregates hand out themselves, in the order the courses and
+// students are first met, so adding an enrollment costs two id lookups and a few array increments, no matter how
+// many courses or students there are
+public class EnrollmentAggregates {
+
+    // the size the counter arrays start with
+    private static final int INITIAL_CAPACITY = 16;
+    // the most days the enrollments per day can span
+    private static final int MAX_DAY_COUNT = Integer.MAX_VALUE - 8;
+
+    // the amount of enrollments added
+    private long enrollmentCount;
+    // seats taken per course id
+    private int[] seatsTakenPerCourse = new int[INITIAL_CAPACITY];
+    // enrollments and credit points per student id
+    private int[] enrollmentsPerStudent = new int[INITIAL_CAPACITY];
+    private long[] creditPointsPerStudent = new long[INITIAL_CAPACITY];
+    // the id of every course and student met so far, and the courses and students themselves in the order they were
+    // first met, so the i-th of them has the id i
+    private Map<Course, Integer> courseIds = new HashMap<>();
+    private List<Course> courses = new ArrayList<>();
+    private Map<Student, Integer> studentIds = new HashMap<>();
+    private List<Student> students = new ArrayList<>();
+    // enrollments per day, enrollmentsPerDay[i] holds the enrollments of epoch day firstEpochDay + i
+    private int[] enrollmentsPerDay = new int[0];
+    private long firstEpochDay;
+
+    // returns the aggregates of all the enrollments the iterator hands over
+    public static EnrollmentAggregates of(Iterator<Enrollment> enrollments) {
+        if (enrollments == null) {
+            throw new NullPointerException("iterator of enrollments cannot be null!");
+        }
+        EnrollmentAggregates aggregates = new EnrollmentAggregates();
+        while (enrollments.hasNext()) {
+            aggregates.add(enrollments.next());
+        }
+        return aggregates;
+    }
+
+    // returns the aggregates of all the enrollments of the list
+    public static EnrollmentAggregates of(List<Enrollment> enrollments) {
+        if (enrollments == null) {
+            throw new NullPointerException("list of enrollments cannot be null!");
+        }
+        // take the enrollments out of the list at once, the list may be synchronized
+        return of(Arrays.asList(enrollments.toArray(new Enrollment[0])).iterator());
+    }
+
+    // adds a single enrollment to every aggregate
+    public void add(Enrollment enrollment) {
+        if (enrollment == null) {
+            throw new NullPointerException("enrollment cannot be null!");
+        }
+        Course course = enrollment.getCourse();
+        Student student = enrollment.getStudent();
+
+        Integer courseId = this.courseIds.get(course);
+        if (courseId == null) {
+            courseId = this.courses.size();
+            this.courseIds.put(course, courseId);
+            this.courses.add(course);
+            if (courseId >= this.seatsTakenPerCourse.length) {
+                this.seatsTakenPerCourse = Arrays.copyOf(this.seatsTakenPerCourse, this.seatsTakenPerCourse.length * 2);
+            }
+        }
+        this.seatsTakenPerCourse[courseId]++;
+
+        Integer studentId = this.studentIds.get(student);
+        if (studentId == null) {
+            studentId = this.students.size();
+            this.studentIds.put(student, studentId);
+            this.students.add(student);
+            if (studentId >= this.enrollmentsPerStudent.length) {
+                int grownLength = this.enrollmentsPerStudent.length * 2;
+                this.enrollmentsPerStudent = Arrays.copyOf(this.enrollmentsPerStudent, grownLength);
+                this.creditPointsPerStudent = Arrays.copyOf(this.creditPointsPerStudent, grownLength);
+            }
+        }
+        this.enrollmentsPerStudent[studentId]++;
+        this.creditPointsPerStudent[studentId] += course.getCreditPoints();
+
+        // dayIndex may replace the array, so it has to run before the array is read
+        int dayIndex = dayIndex(enrollment.getTimestamp().toLocalDate().toEpochDay());
+        this.enrollmentsPerDay[dayIndex]++;
+        this.enrollmentCount++;
+    }
+
+    // returns the amount of enrollments added
+    public long getEnrollmentCount() {
+        return this.enrollmentCount;
+    }
+
+    // returns the courses that have at least one enrollment, in the order they were first met, as they appear in
+    // the first of their enrollments
+    public List<Course> getCourses() {
+        return Collections.unmodifiableList(new ArrayList<>(this.courses));
+    }
+
+    // returns the students that have at least one enrollment, in the order they were first met, as they appear in
+    // the first of their enrollments
+    public List<Student> getStudents() {
+        return Collections.unmodifiableList(new ArrayList<>(this.students));
+    }
+
+    // returns the days that have at least one enrollment, from the earliest to the latest
+    public List<LocalDate> getDays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (int i = 0; i < this.enrollmentsPerDay.length; i++) {
+            if (this.enrollmentsPerDay[i] > 0) {
+                days.add(LocalDate.ofEpochDay(this.firstEpochDay + i));
+            }
+        }
+        return Collections.unmodifiableList(days);
+    }
+
+    // returns the amount of seats taken in a course
+    public int getSeatsTaken(Course course) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+        Integer courseId = this.courseIds.get(course);
+        return courseId == null ? 0 : this.seatsTakenPerCourse[courseId];
+    }
+
+    // returns the part of the capacity of a course that is taken, 1 means the course is full
+    public double getFillRate(Course course) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+        return getSeatsTaken(course) / (double) course.getCapacity();
+    }
+
+    // returns the amount of courses a student is enrolled to
+    public int getEnrollmentCount(Student student) {
+        if (student == null) {
+            throw new NullPointerException("student cannot be null!");
+        }
+        Integer studentId = this.studentIds.get(student);
+        return studentId == null ? 0 : this.enrollmentsPerStudent[studentId];
+    }
+
+    // returns the total credit points of the courses a student is enrolled to
+    public long getCreditPoints(Student student) {
+        if (student == null) {
+            throw new NullPointerException("student cannot be null!");
+        }
+        Integer studentId = this.studentIds.get(student);
+        return studentId == null ? 0 : this.creditPointsPerStudent[studentId];
+    }
+
+    // returns the amount of enrollments made on a day
+    public int getEnrollmentCount(LocalDate day) {
+        if (day == null) {
+            throw new NullPointerException("day cannot be null!");
+        }
+        long index = day.toEpochDay() - this.firstEpochDay;
+        return index < 0 || index >= this.enrollmentsPerDay.length ? 0 : this.enrollmentsPerDay[(int) index];
+    }
+
+    // returns the index of an epoch day inside enrollmentsPerDay, growing the array to either side if needed
+    private int dayIndex(long epochDay) {
+        if (this.enrollmentsPerDay.length == 0) {
+            this.enrollmentsPerDay = new int[INITIAL_CAPACITY];
+            this.firstEpochDay = epochDay;
+        }
+        if (epochDay < this.firstEpochDay) {
+            // make room in front, with some spare days so enrollments going back in time do not copy every time
+            int neededDays = checkedDayCount(this.firstEpochDay - epochDay + this.enrollmentsPerDay.length);
+            int grownLength = Math.max(neededDays, doubledDayCount(this.enrollmentsPerDay.length));
+            int[] grownDays = new int[grownLength];
+            int shift = grownLength - this.enrollmentsPerDay.length;
+            System.arraycopy(this.enrollmentsPerDay, 0, grownDays, shift, this.enrollmentsPerDay.length);
+            this.enrollmentsPerDay = grownDays;
+            this.firstEpochDay -= shift;
+        } else if (epochDay - this.firstEpochDay >= this.enrollmentsPerDay.length) {
+            int neededDays = checkedDayCount(epochDay - this.firstEpochDay + 1);
+            this.enrollmentsPerDay = Arrays.copyOf(this.enrollmentsPerDay, Math.max(neededDays, doubledDayCount(this.enrollmentsPerDay.length)));
+        }
+        return (int) (epochDay - this.firstEpochDay);
+    }
+
+    // makes sure a range of days can be counted in a single array
+    private static int checkedDayCount(long dayCount) {
+        if (dayCount > MAX_DAY_COUNT) {
+            throw new IllegalArgumentException("enrollment days span too many days to be counted!");
+        }
+        return (int) dayCount;
+    }
+
+    // returns twice the amount of days, or as many as fit into an array
+    private static int doubledDayCount(int dayCount) {
+        return (int) Math.min(2L * dayCount, MAX_DAY_COUNT);
+    }
+}
@@ -0,0 +1,11 @@
+import java.time.LocalDateTime;
+
+// the source of enrollment timestamps, so the enrollment manager does not depend on the system clock directly
+public interface EnrollmentClock {
+
+    // the default clock, asks the system clock on every call
+    EnrollmentClock SYSTEM = LocalDateTime::now;
+
+    // returns the timestamp for an enrollment that is being made right now
+    LocalDateTime now();
+}
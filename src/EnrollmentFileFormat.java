@@ -0,0 +1,7 @@
+// the formats EnrollmentSerializer can save enrollments in
+public enum EnrollmentFileFormat {
+    // the list of enrollments written with java serialization, the original format of the application
+    JAVA_SERIALIZATION,
+    // a versioned binary format with a student table, a course table and a fixed width record per enrollment
+    COMPACT
+}
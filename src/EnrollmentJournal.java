@@ -0,0 +1,324 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+// an append-only file of accepted enrollments, so every enrollment can be made durable without rewriting all of them
+// every record is written as [int length][student id, course code, epoch second, nano][int crc32 of the record],
+// a record that was cut in the middle by a crash fails its length or crc check and ends the replay
+// writing a record only copies it to memory, and sync() forces everything written so far to the disk: threads that
+// call sync() while another thread is forcing simply wait and usually find their records were forced along with it,
+// so many enrollments share a single fsync (group commit)
+// once writing or forcing records fails the journal is failed for good, since it is unknown which of the pending
+// records reached the disk - every later sync, checkpoint and close throws instead of reporting records as durable
+public class EnrollmentJournal {
+
+    // the largest record there can be - two strings written with writeUTF, an epoch second and a nano
+    private static final int MAX_RECORD_LENGTH = 2 * (Short.BYTES + 0xFFFF) + Long.BYTES + Integer.BYTES;
+
+    // the journal file
+    private String filePath;
+    // the channel the records are appended to
+    private FileChannel channel;
+    // records that were written but not forced to the disk yet
+    private ByteArrayOutputStream pendingRecords = new ByteArrayOutputStream();
+    // amount of records written so far
+    private long writtenRecords;
+    // amount of records forced to the disk so far
+    private long durableRecords;
+    // held by the thread that forces records to the disk, and by checkpoints
+    private final Object syncLock = new Object();
+    // the error writing or forcing records failed with, null while the journal works
+    private volatile IOException failure;
+
+    // constructor, opens the journal for appending and cuts off any record that was only partly written
+    public EnrollmentJournal(String filePath) throws IOException {
+        if (filePath == null) {
+            throw new NullPointerException("filePath string cannot be null!");
+        }
+        this.filePath = filePath;
+        long validLength = new File(filePath).exists() ? scan(filePath, null) : 0;
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.truncate(validLength);
+        this.channel.position(validLength);
+    }
+
+    // journal file path getter
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    // returns the error the journal failed with, or null if it did not fail
+    public IOException getFailure() {
+        return this.failure;
+    }
+
+    // adds an enrollment to the journal in memory, it is only durable once sync() returned
+    public void write(Enrollment enrollment) {
+        if (enrollment == null) {
+            throw new NullPointerException("enrollment cannot be null!");
+        }
+        byte[] record = encode(enrollment);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        synchronized (this) {
+            try {
+                DataOutputStream dataOutputStream = new DataOutputStream(this.pendingRecords);
+                dataOutputStream.writeInt(record.length);
+                dataOutputStream.write(record);
+                dataOutputStream.writeInt((int) crc.getValue());
+            } catch (IOException e) {
+                // writing to memory cannot fail
+                throw new IllegalStateException(e);
+            }
+            this.writtenRecords++;
+        }
+    }
+
+    // forces every record written so far to the disk
+    public void sync() throws IOException {
+        long target;
+        synchronized (this) {
+            target = this.writtenRecords;
+        }
+        synchronized (this.syncLock) {
+            if (this.durableRecords >= target) {
+                // another thread forced our records while we were waiting
+                return;
+            }
+            flushPendingRecords();
+        }
+    }
+
+    // writes a full snapshot of the enrollments and empties the journal, since the snapshot now holds everything
+    // the enrollments are taken while nothing can be written to the journal, so every record written up to then is
+    // part of the snapshot - an enrollment must therefore be visible to the supplier before it is written to the
+    // journal. the snapshot is saved without blocking writes, records written meanwhile stay in the journal
+    public void checkpoint(Supplier<List<Enrollment>> enrollments, String snapshotPath) throws IOException {
+        if (enrollments == null) {
+            throw new NullPointerException("enrollments supplier cannot be null!");
+        }
+        if (snapshotPath == null) {
+            throw new NullPointerException("snapshotPath string cannot be null!");
+        }
+        synchronized (this.syncLock) {
+            checkNotFailed();
+            List<Enrollment> snapshot;
+            int snapshotPendingBytes;
+            long snapshotRecords;
+            synchronized (this) {
+                snapshot = enrollments.get();
+                snapshotPendingBytes = this.pendingRecords.size();
+                snapshotRecords = this.writtenRecords;
+            }
+
+            // save next to the old snapshot and swap it in, so a crash never leaves a half written snapshot behind
+            // the snapshot and the rename are forced before the journal is emptied, so the journal is never empty
+            // on the disk while the snapshot is not there yet
+            Path temporarySnapshotPath = Paths.get(snapshotPath + ".tmp");
+            EnrollmentSerializer.save(snapshot, temporarySnapshotPath.toString());
+            force(temporarySnapshotPath);
+            Files.move(temporarySnapshotPath, Paths.get(snapshotPath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(Paths.get(snapshotPath).toAbsolutePath().getParent());
+
+            synchronized (this) {
+                // the records that are part of the snapshot are no longer needed
+                byte[] pending = this.pendingRecords.toByteArray();
+                this.pendingRecords.reset();
+                this.pendingRecords.write(pending, snapshotPendingBytes, pending.length - snapshotPendingBytes);
+            }
+            try {
+                this.channel.truncate(0);
+                this.channel.position(0);
+                this.channel.force(true);
+            } catch (IOException e) {
+                this.failure = e;
+                throw e;
+            }
+            this.durableRecords = snapshotRecords;
+        }
+    }
+
+    // forces the buffered records to the disk and closes the journal
+    public void close() throws IOException {
+        synchronized (this.syncLock) {
+            try {
+                flushPendingRecords();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    // writes out and forces whatever is pending, must hold the sync lock
+    // the records stay pending until they were forced, and a failure fails the journal for good
+    private void flushPendingRecords() throws IOException {
+        checkNotFailed();
+        byte[] records;
+        long upTo;
+        synchronized (this) {
+            records = this.pendingRecords.toByteArray();
+            upTo = this.writtenRecords;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.channel.force(false);
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+        synchronized (this) {
+            // keep only the records that were written while we were forcing
+            byte[] pending = this.pendingRecords.toByteArray();
+            this.pendingRecords.reset();
+            this.pendingRecords.write(pending, records.length, pending.length - records.length);
+        }
+        this.durableRecords = upTo;
+    }
+
+    // forces the contents of a file to the disk
+    private static void force(Path filePath) throws IOException {
+        FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.WRITE);
+        try {
+            fileChannel.force(true);
+        } finally {
+            fileChannel.close();
+        }
+    }
+
+    // forces the entries of a directory to the disk, so a file renamed into it stays renamed after a crash
+    // not every platform can open a directory, those keep the rename wherever their file system does
+    private static void forceDirectory(Path directoryPath) {
+        if (directoryPath == null) {
+            return;
+        }
+        try {
+            FileChannel directoryChannel = FileChannel.open(directoryPath, StandardOpenOption.READ);
+            try {
+                directoryChannel.force(true);
+            } finally {
+                directoryChannel.close();
+            }
+        } catch (IOException e) {
+            // the rename itself already happened
+        }
+    }
+
+    // throws if writing or forcing records failed before
+    private void checkNotFailed() throws IOException {
+        if (this.failure != null) {
+            throw new IOException("enrollment journal failed before, no more records can be made durable!", this.failure);
+        }
+    }
+
+    // reads all the complete records of a journal and turns them back into enrollments of the given students and courses
+    public static List<Enrollment> replay(String filePath, List<Student> students, List<Course> courses) throws IOException {
+        if (filePath == null) {
+            throw new NullPointerException("filePath string cannot be null!");
+        }
+        if (students == null || courses == null) {
+            throw new NullPointerException("students and courses lists cannot be null!");
+        }
+        Map<String, Student> studentsById = new HashMap<>();
+        for (Student student: students) {
+            studentsById.put(student.getId(), student);
+        }
+        Map<String, Course> coursesByCode = new HashMap<>();
+        for (Course course: courses) {
+            coursesByCode.put(course.getCode(), course);
+        }
+
+        List<Enrollment> enrollments = new ArrayList<>();
+        if (!new File(filePath).exists()) {
+            return enrollments;
+        }
+        List<byte[]> records = new ArrayList<>();
+        scan(filePath, records);
+        for (byte[] record: records) {
+            DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(record));
+            String studentId = dataInputStream.readUTF();
+            String courseCode = dataInputStream.readUTF();
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(dataInputStream.readLong(), dataInputStream.readInt(), ZoneOffset.UTC);
+            Student student = studentsById.get(studentId);
+            Course course = coursesByCode.get(courseCode);
+            if (student == null || course == null) {
+                throw new IOException("journal refers to an unknown student '" + studentId + "' or course '" + courseCode + "'!");
+            }
+            enrollments.add(new Enrollment(student, course, timestamp));
+        }
+        return enrollments;
+    }
+
+    // adds every complete record of the journal to the given list (unless it is null), and returns the length of the
+    // journal up to the end of the last complete record
+    private static long scan(String filePath, List<byte[]> records) throws IOException {
+        long validLength = 0;
+        long fileLength = new File(filePath).length();
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)));
+        try {
+            while (true) {
+                int length = dataInputStream.readInt();
+                // a length no record can have, or one that goes past the end of the file, is a torn or corrupt tail
+                if (length <= 0 || length > MAX_RECORD_LENGTH || length > fileLength - validLength - 2 * Integer.BYTES) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                dataInputStream.readFully(record);
+                int expectedCrc = dataInputStream.readInt();
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                if (records != null) {
+                    records.add(record);
+                }
+                validLength += Integer.BYTES + length + Integer.BYTES;
+            }
+        } catch (EOFException e) {
+            // the journal ended, maybe in the middle of a record that was never completed
+        } finally {
+            dataInputStream.close();
+        }
+        return validLength;
+    }
+
+    // turns an enrollment into the bytes of a single record
+    private static byte[] encode(Enrollment enrollment) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(record);
+        try {
+            dataOutputStream.writeUTF(enrollment.getStudent().getId());
+            dataOutputStream.writeUTF(enrollment.getCourse().getCode());
+            dataOutputStream.writeLong(enrollment.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            dataOutputStream.writeInt(enrollment.getTimestamp().getNano());
+        } catch (IOException e) {
+            // writing to memory cannot fail
+            throw new IllegalStateException(e);
+        }
+        return record.toByteArray();
+    }
+}
@@ -1,13 +1,124 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+// enrollments can be made from many threads at once: every check-then-add sequence runs while holding the lock
+// of the course being enrolled to, so two threads can never both take the last seat of the same course, while
+// enrollments to different courses usually hold different locks and do not wait for each other
 public class EnrollmentManager {
 
-    private static List<Enrollment> enrollments = new ArrayList<>();
+    // amount of course locks, must be a power of two so a hash can be turned into a lock index with a mask
+    private static final int COURSE_LOCK_STRIPES = 64;
+    // the most seats prepareCourseIndexes makes room for in a single course, so a huge capacity does not
+    // take memory before anyone enrolls
+    private static final int PREPARED_SEATS_LIMIT = 256;
+    // course locks, a course always maps to the same lock but several courses may share one
+    private static final Object[] courseLocks = new Object[COURSE_LOCK_STRIPES];
+    static {
+        for (int i = 0; i < courseLocks.length; i++) {
+            courseLocks[i] = new Object();
+        }
+    }
+
+    // all enrollments in the order they were made
+    private static List<Enrollment> enrollments = Collections.synchronizedList(new ArrayList<>());
+    // the same enrollments indexed by course, the size of each list is the amount of seats taken in that course
+    // each list is only touched while holding the lock of its course
+    private static Map<Course, List<Enrollment>> enrollmentsPerCourse = new ConcurrentHashMap<>();
+    // the same enrollments indexed by student
+    private static Map<Student, List<Enrollment>> enrollmentsPerStudent = new ConcurrentHashMap<>();
+    // the same enrollments as a bitmap of student ids per course id, so checking whether an enrollment exists
+    // is a bit test that neither scans nor creates any object
+    private static EnrollmentMatrix enrollmentMatrix = new EnrollmentMatrix();
+    // the same enrollments ordered by their timestamp, so time range queries do not scan every enrollment
+    private static EnrollmentTimeIndex enrollmentTimeIndex = new EnrollmentTimeIndex();
+
+    // the clock that stamps every new enrollment
+    private EnrollmentClock clock;
+    // when set, the exceptions thrown by enroll are created without a stack trace
+    private boolean stacklessExceptions;
+    // when set, every accepted enrollment is appended to this journal and is durable once enroll returns
+    private EnrollmentJournal journal;
+
+    // constructor, enrollments are stamped by the system clock
+    public EnrollmentManager() {
+        this(EnrollmentClock.SYSTEM);
+    }
+
+    // constructor, enrollments are stamped by the given clock
+    public EnrollmentManager(EnrollmentClock clock) {
+        setClock(clock);
+    }
+
+    // enrollment clock getter
+    public EnrollmentClock getClock() {
+        return this.clock;
+    }
+
+    // enrollment clock setter
+    public void setClock(EnrollmentClock clock) {
+        if (clock == null) {
+            throw new NullPointerException("clock cannot be null!");
+        }
+        this.clock = clock;
+    }
+
+    // enrollment journal getter, null when enrollments are not journaled
+    public EnrollmentJournal getJournal() {
+        return this.journal;
+    }
+
+    // enrollment journal setter, null stops journaling
+    public void setJournal(EnrollmentJournal journal) {
+        this.journal = journal;
+    }
+
+    // stackless exceptions getter
+    public boolean isStacklessExceptions() {
+        return this.stacklessExceptions;
+    }
+
+    // stackless exceptions setter, meant for callers that reject many enrollments and never look at the stack trace
+    public void setStacklessExceptions(boolean stacklessExceptions) {
+        this.stacklessExceptions = stacklessExceptions;
+    }
 
     public void enroll(Student student, Course course) throws CourseFullException, PrerequisiteMissingException, DuplicateEnrollmentException {
+        // a thin wrapper that turns every rejection of tryEnroll into its exception
+        boolean writableStackTrace = !isStacklessExceptions();
+        switch (tryEnroll(student, course)) {
+            case COURSE_FULL:
+                throw new CourseFullException("course is full!", writableStackTrace);
+            case DUPLICATE:
+                throw new DuplicateEnrollmentException("student is already enrolled to this course!", writableStackTrace);
+            case PREREQUISITE_MISSING:
+                throw new PrerequisiteMissingException("student does not meet all prerequisites!", writableStackTrace);
+            case ACCEPTED_NOT_DURABLE:
+                // the student stays enrolled, only making the enrollment durable failed
+                throw new UncheckedIOException("student was enrolled, but the journal failed to make the enrollment durable!", journalFailure());
+            default:
+                // accepted
+                break;
+        }
+    }
+
+    // same as enroll, but a rejection is returned as a status instead of being thrown,
+    // the statuses are enum constants so a rejection does not create any object
+    // an enrollment the journal failed to make durable is not taken back, it is returned as ACCEPTED_NOT_DURABLE
+    public EnrollmentStatus tryEnroll(Student student, Course course) {
         if (student == null) {
             throw new NullPointerException("student cannot be null!");
         }
@@ -15,27 +126,243 @@ public class EnrollmentManager {
             throw new NullPointerException("course cannot be null!");
         }
 
+        EnrollmentStatus status;
+        synchronized (lockFor(course)) {
+            status = enrollLocked(student, course);
+        }
+        // wait for the journal outside the course lock, so enrollments that wait together share one fsync
+        if (status == EnrollmentStatus.ACCEPTED && !syncJournal()) {
+            status = EnrollmentStatus.ACCEPTED_NOT_DURABLE;
+        }
+        return status;
+    }
+
+    // enrolls every request of the given collection and returns the outcome of every request, such that
+    // the i-th status of the returned list belongs to the i-th request of the collection
+    // requests are grouped by course, so every course lock is taken once for the entire batch, and the groups are
+    // handled in prerequisite order, so a prerequisite enrolled in this very batch counts for the courses that need it
+    public List<EnrollmentStatus> enrollAll(Collection<EnrollmentRequest> requests) {
+        if (requests == null) {
+            throw new NullPointerException("collection of requests cannot be null!");
+        }
+
+        // group the position of every request by its course, keeping the original order inside every group
+        List<EnrollmentRequest> requestList = new ArrayList<>(requests);
+        Map<Course, List<Integer>> requestsPerCourse = new LinkedHashMap<>();
+        for (int i = 0; i < requestList.size(); i++) {
+            EnrollmentRequest request = requestList.get(i);
+            if (request == null) {
+                throw new NullPointerException("enrollment request cannot be null!");
+            }
+            requestsPerCourse.computeIfAbsent(request.getCourse(), key -> new ArrayList<>()).add(i);
+        }
+
+        // a course always comes after its prerequisites, since its depth is larger than theirs
+        Map<Course, Integer> depthPerCourse = new HashMap<>();
+        List<Course> courseOrder = new ArrayList<>(requestsPerCourse.keySet());
+        for (Course course: courseOrder) {
+            prerequisiteDepth(course, depthPerCourse, new HashSet<>());
+        }
+        courseOrder.sort(Comparator.comparingInt(depthPerCourse::get));
+
+        EnrollmentStatus[] statuses = new EnrollmentStatus[requestList.size()];
+        for (Course course: courseOrder) {
+            synchronized (lockFor(course)) {
+                for (int index: requestsPerCourse.get(course)) {
+                    statuses[index] = enrollLocked(requestList.get(index).getStudent(), course);
+                }
+            }
+        }
+        // a single fsync makes the entire batch durable
+        if (!syncJournal()) {
+            for (int i = 0; i < statuses.length; i++) {
+                if (statuses[i] == EnrollmentStatus.ACCEPTED) {
+                    statuses[i] = EnrollmentStatus.ACCEPTED_NOT_DURABLE;
+                }
+            }
+        }
+        return Arrays.asList(statuses);
+    }
+
+    // helper method to compute the length of the longest prerequisite chain below a course, a course without
+    // prerequisites has a depth of 0. courses that are currently being visited are skipped to survive cyclic prerequisites
+    private int prerequisiteDepth(Course course, Map<Course, Integer> depthPerCourse, Set<Course> visiting) {
+        Integer knownDepth = depthPerCourse.get(course);
+        if (knownDepth != null) {
+            return knownDepth;
+        }
+        if (!visiting.add(course)) {
+            return 0;
+        }
+        int depth = 0;
+        for (Course prerequisite: course.getPrerequisites()) {
+            depth = Math.max(depth, prerequisiteDepth(prerequisite, depthPerCourse, visiting) + 1);
+        }
+        visiting.remove(course);
+        depthPerCourse.put(course, depth);
+        return depth;
+    }
+
+    // runs all the enrollment checks and enrolls the student if they pass, must hold the lock of the course
+    private EnrollmentStatus enrollLocked(Student student, Course course) {
         // handle CourseFullException
-        // getEnrollmentsForCourse(course).size() is basically the amount of student that enrolled to this course
-        if (getEnrollmentsForCourse(course).size() == course.getCapacity()) {
-            throw new CourseFullException("course is full!");
+        // countEnrollments(course) is basically the amount of student that enrolled to this course
+        if (countEnrollments(course) >= course.getCapacity()) {
+            return EnrollmentStatus.COURSE_FULL;
         }
 
         // handle DuplicateEnrollmentException
         if (enrollmentExists(student, course)) {
-            throw new DuplicateEnrollmentException("student is already enrolled to this course!");
+            return EnrollmentStatus.DUPLICATE;
         }
 
         // handle PrerequisiteMissingException
         // the TA said in her reply that an enrollment counts as if the student meets the prerequisite
         // so we iterate over all the prerequisites until we find one that the student did not enroll
-        for (Course prerequisite: course.getPrerequisites()) {
-            if (!enrollmentExists(student, prerequisite)) {
-                throw new PrerequisiteMissingException("student does not meet all prerequisites!");
+        // prerequisites belong to other courses, so their enrollments are read without taking their locks,
+        // an enrollment to a prerequisite that is being made at this very moment may or may not be seen
+        // the prerequisites are accessed by index so no iterator is created for every enrollment, the list is read
+        // once so the whole check sees the same prerequisites
+        List<Course> prerequisites = course.getPrerequisites();
+        for (int i = 0; i < prerequisites.size(); i++) {
+            if (!enrollmentExists(student, prerequisites.get(i))) {
+                return EnrollmentStatus.PREREQUISITE_MISSING;
             }
         }
 
-        enrollments.add(new Enrollment(student, course, LocalDateTime.now()));
+        // the clock is only asked for the time once all the checks passed
+        Enrollment enrollment = new Enrollment(student, course, getClock().now());
+        addEnrollment(enrollment);
+        // the enrollment is already part of getAllEnrollments by now, which is what a journal checkpoint relies on
+        EnrollmentJournal currentJournal = getJournal();
+        if (currentJournal != null) {
+            currentJournal.write(enrollment);
+        }
+        return EnrollmentStatus.ACCEPTED;
+    }
+
+    // returns the lock that guards the enrollments of a specific course
+    // also used by CatalogWatcher, so a course never changes while an enrollment to it is being checked
+    static Object lockFor(Course course) {
+        int hash = course.hashCode();
+        // spread the high bits so courses whose hashes only differ there do not all land on the same lock
+        hash ^= (hash >>> 16);
+        return courseLocks[hash & (COURSE_LOCK_STRIPES - 1)];
+    }
+
+    // helper method to add an enrollment to the list and to every index, must hold the lock of the course
+    private void addEnrollment(Enrollment enrollment) {
+        enrollmentsPerCourse.computeIfAbsent(enrollment.getCourse(), key -> new ArrayList<>()).add(enrollment);
+        // a student may enroll to two courses at once from two threads, so the student list needs its own guarding
+        enrollmentsPerStudent.computeIfAbsent(enrollment.getStudent(), key -> Collections.synchronizedList(new ArrayList<>())).add(enrollment);
+        enrollmentMatrix.add(CatalogIds.internCourse(enrollment.getCourse()), CatalogIds.internStudent(enrollment.getStudent()));
+        enrollmentTimeIndex.add(enrollment);
+        enrollments.add(enrollment);
+    }
+
+    // creates the index entries of the given students ahead of their first enrollment, so enrolling does not have to
+    public void prepareStudentIndexes(Collection<Student> students) {
+        if (students == null) {
+            throw new NullPointerException("students collection cannot be null!");
+        }
+        for (Student student: students) {
+            CatalogIds.internStudent(student);
+            enrollmentsPerStudent.computeIfAbsent(student, key -> Collections.synchronizedList(new ArrayList<>()));
+        }
+    }
+
+    // creates the index entries of the given courses ahead of their first enrollment, so enrolling does not have to
+    // every course gets its bitmap row and a list with room for its capacity, up to PREPARED_SEATS_LIMIT seats
+    public void prepareCourseIndexes(Collection<Course> courses) {
+        if (courses == null) {
+            throw new NullPointerException("courses collection cannot be null!");
+        }
+        for (Course course: courses) {
+            int courseId = CatalogIds.internCourse(course);
+            synchronized (lockFor(course)) {
+                enrollmentsPerCourse.computeIfAbsent(course, key -> new ArrayList<>(Math.min(course.getCapacity(), PREPARED_SEATS_LIMIT)));
+                enrollmentMatrix.reserve(courseId);
+            }
+        }
+    }
+
+    // forces the journal to the disk, if there is one, returns false if the journal failed to
+    // the enrollments are already made by then, so a failing disk is reported as ACCEPTED_NOT_DURABLE rather than
+    // an exception that would look like the enrollment was not made
+    private boolean syncJournal() {
+        EnrollmentJournal currentJournal = getJournal();
+        if (currentJournal == null) {
+            return true;
+        }
+        try {
+            currentJournal.sync();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // returns the error the journal failed with
+    private IOException journalFailure() {
+        EnrollmentJournal currentJournal = getJournal();
+        IOException failure = currentJournal == null ? null : currentJournal.getFailure();
+        return failure != null ? failure : new IOException("enrollment journal failed!");
+    }
+
+    // saves a full snapshot of all the enrollments and empties the journal, which must be set
+    public void checkpoint(String snapshotPath) throws IOException {
+        if (getJournal() == null) {
+            throw new IllegalStateException("cannot checkpoint without a journal!");
+        }
+        getJournal().checkpoint(() -> {
+            synchronized (enrollments) {
+                return new ArrayList<>(enrollments);
+            }
+        }, snapshotPath);
+    }
+
+    // restores the enrollments of the last snapshot and of the journal, which must be set, on startup
+    // enrollments are matched to the given students and courses by id and code, enrollments that already exist are
+    // skipped (an enrollment may be in both the snapshot and the journal), and none of them is checked again,
+    // since every one of them was accepted before
+    public void recover(String snapshotPath, List<Student> students, List<Course> courses) throws IOException, ClassNotFoundException {
+        if (snapshotPath == null) {
+            throw new NullPointerException("snapshotPath string cannot be null!");
+        }
+        if (students == null || courses == null) {
+            throw new NullPointerException("students and courses lists cannot be null!");
+        }
+        if (getJournal() == null) {
+            throw new IllegalStateException("cannot recover without a journal!");
+        }
+
+        Map<String, Student> studentsById = new HashMap<>();
+        for (Student student: students) {
+            studentsById.put(student.getId(), student);
+        }
+        Map<String, Course> coursesByCode = new HashMap<>();
+        for (Course course: courses) {
+            coursesByCode.put(course.getCode(), course);
+        }
+
+        List<Enrollment> recovered = new ArrayList<>();
+        if (new File(snapshotPath).exists()) {
+            for (Enrollment enrollment: EnrollmentSerializer.load(snapshotPath)) {
+                // prefer the loaded student and course objects over the deserialized copies
+                Student student = studentsById.computeIfAbsent(enrollment.getStudent().getId(), key -> enrollment.getStudent());
+                Course course = coursesByCode.computeIfAbsent(enrollment.getCourse().getCode(), key -> enrollment.getCourse());
+                recovered.add(new Enrollment(student, course, enrollment.getTimestamp()));
+            }
+        }
+        recovered.addAll(EnrollmentJournal.replay(getJournal().getFilePath(), new ArrayList<>(studentsById.values()), new ArrayList<>(coursesByCode.values())));
+
+        for (Enrollment enrollment: recovered) {
+            synchronized (lockFor(enrollment.getCourse())) {
+                if (!enrollmentExists(enrollment.getStudent(), enrollment.getCourse())) {
+                    addEnrollment(enrollment);
+                }
+            }
+        }
     }
 
     // helper method to determine if an enrollment exists
@@ -47,31 +374,93 @@ public class EnrollmentManager {
             throw new NullPointerException("course cannot be null!");
         }
 
-        List<Enrollment> enrollmentsForCourse = getEnrollmentsForCourse(course);
-        // create a temporary enrollment just to check if it exists, this is exactly why the enrollment date should not
-        // play a part when testing for equality
-        Enrollment temporaryEnrollment = new Enrollment(student, course, LocalDateTime.now());
-        return enrollmentsForCourse.contains(temporaryEnrollment);
+        // a student or a course that was never interned cannot have any enrollment, and the matrix answers false for -1
+        return enrollmentMatrix.contains(CatalogIds.courseId(course), CatalogIds.studentId(student));
+    }
+
+    // helper method to get the amount of seats taken in a specific course
+    public int getEnrollmentCount(Course course) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+
+        synchronized (lockFor(course)) {
+            return countEnrollments(course);
+        }
+    }
+
+    // counts the enrollments of a specific course, must hold the lock of the course
+    private int countEnrollments(Course course) {
+        List<Enrollment> enrollmentsForCourse = enrollmentsPerCourse.get(course);
+        return enrollmentsForCourse == null ? 0 : enrollmentsForCourse.size();
+    }
+
+    // helper method to get the ids of all the students enrolled to a specific course in ascending order,
+    // a compact roster that CatalogIds.student can turn back into students
+    public int[] getEnrolledStudentIds(Course course) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+
+        return enrollmentMatrix.students(CatalogIds.courseId(course));
     }
 
     // helper method to get all enrollments to a specific course
+    // returns a copy taken under the course lock, its size is bounded by the capacity of the course
     public List<Enrollment> getEnrollmentsForCourse(Course course) {
         if (course == null) {
             throw new NullPointerException("course cannot be null!");
         }
 
-        // create a new list
-        List<Enrollment> enrollmentsForCourse = new ArrayList<>();
-        // iterate over all enrollments and add the enrollments that specify the given course
-        for (Enrollment enrollment : getAllEnrollments()) {
-            if (enrollment.getCourse().equals(course)) {
-                enrollmentsForCourse.add(enrollment);
+        synchronized (lockFor(course)) {
+            List<Enrollment> enrollmentsForCourse = enrollmentsPerCourse.get(course);
+            if (enrollmentsForCourse == null) {
+                return new ArrayList<>();
             }
+            return new ArrayList<>(enrollmentsForCourse);
         }
-        return enrollmentsForCourse;
+    }
+
+    // helper method to get all enrollments of a specific student - returns a copy since other threads may still be adding to it
+    public List<Enrollment> getEnrollmentsForStudent(Student student) {
+        if (student == null) {
+            throw new NullPointerException("student cannot be null!");
+        }
+
+        List<Enrollment> enrollmentsForStudent = enrollmentsPerStudent.get(student);
+        if (enrollmentsForStudent == null) {
+            return new ArrayList<>();
+        }
+        synchronized (enrollmentsForStudent) {
+            return new ArrayList<>(enrollmentsForStudent);
+        }
+    }
+
+    // helper method to get all enrollments made from the given time (inclusive) until the given time (exclusive),
+    // in the order of their timestamps - a binary search, no matter how many enrollments there are
+    public List<Enrollment> getEnrollmentsBetween(LocalDateTime from, LocalDateTime to) {
+        return enrollmentTimeIndex.getEnrollmentsBetween(from, to);
+    }
+
+    // helper method to get the enrollments to a specific course made from the given time (inclusive) until the given
+    // time (exclusive), in the order of their timestamps
+    public List<Enrollment> getEnrollmentsBetween(Course course, LocalDateTime from, LocalDateTime to) {
+        return enrollmentTimeIndex.getEnrollmentsBetween(course, from, to);
+    }
+
+    // helper method to get the amount of enrollments made from the given time (inclusive) until the given time (exclusive)
+    public int countEnrollmentsBetween(LocalDateTime from, LocalDateTime to) {
+        return enrollmentTimeIndex.countBetween(from, to);
+    }
+
+    // helper method to get the amount of enrollments to a specific course made from the given time (inclusive) until
+    // the given time (exclusive)
+    public int countEnrollmentsBetween(Course course, LocalDateTime from, LocalDateTime to) {
+        return enrollmentTimeIndex.countBetween(course, from, to);
     }
 
     // all enrollments list getter - returns an unmodifiable copy to prevent user affecting the list from outside
+    // adding to the list behind it is thread safe, but iterating over it is only safe once no other thread is enrolling
     public List<Enrollment> getAllEnrollments() {
         return Collections.unmodifiableList(enrollments);
     }
@@ -0,0 +1,135 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// a bitmap per course of the students enrolled to it, where student and course ids are the dense ids of CatalogIds
+// bit s of row c is set when student s is enrolled to course c, so a membership test is a single bit operation,
+// and a roster costs one bit per student id instead of a reference and a hash table entry per enrolled student
+// rows are read without any lock, but a row must only be changed while holding the enrollment lock of its course
+public class EnrollmentMatrix {
+
+    // amount of bits in a single word of a row
+    private static final int BITS_PER_WORD = Long.SIZE;
+    // initial amount of rows
+    private static final int INITIAL_ROW_COUNT = 16;
+
+    // one row per course id, rows of courses that have no enrollments yet are null
+    private volatile AtomicReferenceArray<AtomicLongArray> rows = new AtomicReferenceArray<>(INITIAL_ROW_COUNT);
+
+    // returns true if the student is enrolled to the course
+    public boolean contains(int courseId, int studentId) {
+        if (courseId < 0 || studentId < 0) {
+            return false;
+        }
+        AtomicReferenceArray<AtomicLongArray> currentRows = this.rows;
+        if (courseId >= currentRows.length()) {
+            return false;
+        }
+        AtomicLongArray row = currentRows.get(courseId);
+        int wordIndex = studentId / BITS_PER_WORD;
+        if (row == null || wordIndex >= row.length()) {
+            return false;
+        }
+        return (row.get(wordIndex) & (1L << studentId)) != 0;
+    }
+
+    // marks the student as enrolled to the course, must hold the enrollment lock of the course
+    public void add(int courseId, int studentId) {
+        if (courseId < 0 || studentId < 0) {
+            throw new IllegalArgumentException("course and student ids cannot be negative!");
+        }
+        int wordIndex = studentId / BITS_PER_WORD;
+        AtomicLongArray row = rowFor(courseId, wordIndex + 1);
+        // nobody else changes this row while we hold the course lock, so there is no lost update here
+        row.set(wordIndex, row.get(wordIndex) | (1L << studentId));
+    }
+
+    // creates the row of a course ahead of its first enrollment, the row still grows with the student ids enrolled
+    // to it, since giving every course room for every student up front would cost courses * students bits
+    // must hold the enrollment lock of the course
+    public void reserve(int courseId) {
+        if (courseId < 0) {
+            throw new IllegalArgumentException("course id cannot be negative!");
+        }
+        rowFor(courseId, 1);
+    }
+
+    // returns the amount of students enrolled to the course
+    public int count(int courseId) {
+        AtomicLongArray row = row(courseId);
+        if (row == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < row.length(); i++) {
+            count += Long.bitCount(row.get(i));
+        }
+        return count;
+    }
+
+    // returns the ids of all the students enrolled to the course in ascending order
+    public int[] students(int courseId) {
+        AtomicLongArray row = row(courseId);
+        if (row == null) {
+            return new int[0];
+        }
+        // copy the row first, so the count and the ids come from the same words
+        long[] words = new long[row.length()];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            words[i] = row.get(i);
+            count += Long.bitCount(words[i]);
+        }
+        int[] studentIds = new int[count];
+        int next = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                studentIds[next++] = i * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+                // clear the lowest set bit
+                word &= word - 1;
+            }
+        }
+        return studentIds;
+    }
+
+    // returns the row of a course, or null if nobody enrolled to it yet
+    private AtomicLongArray row(int courseId) {
+        AtomicReferenceArray<AtomicLongArray> currentRows = this.rows;
+        if (courseId < 0 || courseId >= currentRows.length()) {
+            return null;
+        }
+        return currentRows.get(courseId);
+    }
+
+    // returns the row of a course with room for at least the given amount of words, creating or growing it if needed
+    private AtomicLongArray rowFor(int courseId, int minimumWords) {
+        AtomicLongArray row = row(courseId);
+        if (row != null && row.length() >= minimumWords) {
+            return row;
+        }
+        // rows are replaced rarely, so a single lock for replacing rows and growing the row table is enough
+        synchronized (this) {
+            AtomicReferenceArray<AtomicLongArray> currentRows = this.rows;
+            if (courseId >= currentRows.length()) {
+                AtomicReferenceArray<AtomicLongArray> grownRows = new AtomicReferenceArray<>(Math.max(courseId + 1, currentRows.length() * 2));
+                for (int i = 0; i < currentRows.length(); i++) {
+                    grownRows.set(i, currentRows.get(i));
+                }
+                this.rows = grownRows;
+                currentRows = grownRows;
+            }
+            row = currentRows.get(courseId);
+            if (row == null || row.length() < minimumWords) {
+                int oldLength = row == null ? 0 : row.length();
+                // grow by at least half of the row, so a course filling up does not copy its row on every enrollment
+                AtomicLongArray grownRow = new AtomicLongArray(Math.max(minimumWords, oldLength + oldLength / 2));
+                for (int i = 0; i < oldLength; i++) {
+                    grownRow.set(i, row.get(i));
+                }
+                currentRows.set(courseId, grownRow);
+                row = grownRow;
+            }
+            return row;
+        }
+    }
+}
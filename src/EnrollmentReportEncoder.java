@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+// encodes enrollment report lines straight into a byte buffer, without going through String.format and
+// LocalDateTime.format for every line
+// a line is "<id> | <name> | <title> | yyyy-MM-ddTHH:mm" followed by the line separator, encoded with the same
+// charset FileWriter uses, so the bytes are exactly the ones the report always had
+// lines that are all ASCII are copied into the buffer char by char, any other line is handed to a charset encoder
+// that keeps its state from line to line, just like the one inside FileWriter
+public class EnrollmentReportEncoder {
+
+    // the timestamp format of the report
+    public static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+    // what goes between the fields of a line
+    private static final String FIELD_DELIMITER = " | ";
+    // the number of chars the fields of a line are surrounded with - three delimiters and a yyyy-MM-ddTHH:mm timestamp
+    private static final int FIXED_LINE_CHARS = 3 * FIELD_DELIMITER.length() + 16;
+
+    // the buffer the lines are encoded into, it only grows when a single line does not fit into it
+    private ByteBuffer buffer;
+    // the encoder for lines that are not all ASCII, set up the same way FileWriter sets up its own
+    private CharsetEncoder encoder;
+    // true if the charset encodes every ASCII char as the single byte of the same value
+    private boolean asciiCompatible;
+    // the encoded line separator, only used when the charset is ASCII compatible
+    private byte[] lineSeparator;
+
+    // constructor, encodes with the default charset, which is what FileWriter uses
+    public EnrollmentReportEncoder(int bufferSize) {
+        this(bufferSize, Charset.defaultCharset());
+    }
+
+    // constructor
+    public EnrollmentReportEncoder(int bufferSize, Charset charset) {
+        if (charset == null) {
+            throw new NullPointerException("charset cannot be null!");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be positive!");
+        }
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = isAsciiCompatible(charset);
+        this.lineSeparator = System.lineSeparator().getBytes(charset);
+    }
+
+    // returns true if the charset encodes ASCII as is, every line then ends in the same encoder state it started in,
+    // so separate encoders can encode separate parts of a report and the parts can simply be put one after the other
+    public boolean isAsciiCompatible() {
+        return this.asciiCompatible;
+    }
+
+    // returns the number of encoded bytes that were not drained yet
+    public int size() {
+        return this.buffer.position();
+    }
+
+    // returns the encoded bytes that were not drained yet, ready to be read
+    public ByteBuffer encodedBytes() {
+        ByteBuffer encodedBytes = this.buffer.duplicate();
+        encodedBytes.flip();
+        return encodedBytes;
+    }
+
+    // appends the report line of the enrollment
+    public void encode(Enrollment enrollment) {
+        if (enrollment == null) {
+            throw new NullPointerException("enrollment cannot be null!");
+        }
+        String id = enrollment.getStudent().getId();
+        String name = enrollment.getStudent().getName();
+        String title = enrollment.getCourse().getTitle();
+        LocalDateTime timestamp = enrollment.getTimestamp();
+        if (this.asciiCompatible && encodeAscii(id, name, title, timestamp)) {
+            return;
+        }
+        encodeChars(id + FIELD_DELIMITER + name + FIELD_DELIMITER + title + FIELD_DELIMITER
+                + timestamp.format(TIMESTAMP_FORMATTER) + System.lineSeparator(), false);
+    }
+
+    // appends whatever the charset writes at the end of the output, nothing at all for most charsets
+    // must be called once after the last line
+    public void finish() {
+        encodeChars("", true);
+        while (this.encoder.flush(this.buffer).isOverflow()) {
+            grow();
+        }
+    }
+
+    // writes the encoded bytes at the current position of the channel, and empties the buffer so it can be reused
+    public void drainTo(FileChannel channel) throws IOException {
+        ByteBuffer encodedBytes = encodedBytes();
+        while (encodedBytes.hasRemaining()) {
+            channel.write(encodedBytes);
+        }
+        this.buffer.clear();
+    }
+
+    // writes the encoded bytes at the given position of the channel, and empties the buffer so it can be reused
+    // returns the position right after the written bytes
+    public long drainTo(FileChannel channel, long position) throws IOException {
+        ByteBuffer encodedBytes = encodedBytes();
+        while (encodedBytes.hasRemaining()) {
+            position += channel.write(encodedBytes, position);
+        }
+        this.buffer.clear();
+        return position;
+    }
+
+    // copies an all ASCII line into the buffer, returns false without changing the buffer if the line is not all ASCII
+    // or its timestamp does not have a four digit year
+    private boolean encodeAscii(String id, String name, String title, LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        if (year < 1 || year > 9999) {
+            // the formatter writes a sign or an era year for those
+            return false;
+        }
+        ensureRemaining(id.length() + name.length() + title.length() + FIXED_LINE_CHARS + this.lineSeparator.length);
+        int lineStart = this.buffer.position();
+        if (!putAscii(id) || !putAscii(FIELD_DELIMITER) || !putAscii(name) || !putAscii(FIELD_DELIMITER)
+                || !putAscii(title) || !putAscii(FIELD_DELIMITER)) {
+            this.buffer.position(lineStart);
+            return false;
+        }
+        putDigits(year, 4);
+        this.buffer.put((byte) '-');
+        putDigits(timestamp.getMonthValue(), 2);
+        this.buffer.put((byte) '-');
+        putDigits(timestamp.getDayOfMonth(), 2);
+        this.buffer.put((byte) 'T');
+        putDigits(timestamp.getHour(), 2);
+        this.buffer.put((byte) ':');
+        putDigits(timestamp.getMinute(), 2);
+        this.buffer.put(this.lineSeparator);
+        return true;
+    }
+
+    // puts the chars of the string as bytes, returns false at the first char that is not ASCII
+    private boolean putAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char current = value.charAt(i);
+            if (current >= 0x80) {
+                return false;
+            }
+            this.buffer.put((byte) current);
+        }
+        return true;
+    }
+
+    // puts a non-negative number as exactly the given number of digits, padded with zeros
+    private void putDigits(int value, int digits) {
+        int position = this.buffer.position() + digits;
+        for (int i = 1; i <= digits; i++) {
+            this.buffer.put(position - i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        this.buffer.position(position);
+    }
+
+    // encodes the chars with the charset encoder, growing the buffer as long as they do not fit
+    private void encodeChars(String chars, boolean endOfInput) {
+        CharBuffer charBuffer = CharBuffer.wrap(chars);
+        while (true) {
+            CoderResult result = this.encoder.encode(charBuffer, this.buffer, endOfInput);
+            if (!result.isOverflow()) {
+                // errors are replaced, and a line always ends with the line separator, so no char is left behind
+                return;
+            }
+            grow();
+        }
+    }
+
+    // makes sure the buffer has room for the given number of bytes
+    private void ensureRemaining(int byteCount) {
+        while (this.buffer.remaining() < byteCount) {
+            grow();
+        }
+    }
+
+    // doubles the buffer, keeping what is already in it
+    private void grow() {
+        ByteBuffer grownBuffer = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, 16));
+        this.buffer.flip();
+        grownBuffer.put(this.buffer);
+        this.buffer = grownBuffer;
+    }
+
+    // returns true if the charset encodes every ASCII char as the single byte of the same value, and nothing else
+    private static boolean isAsciiCompatible(Charset charset) {
+        char[] asciiChars = new char[0x80];
+        byte[] asciiBytes = new byte[0x80];
+        for (int i = 0; i < 0x80; i++) {
+            asciiChars[i] = (char) i;
+            asciiBytes[i] = (byte) i;
+        }
+        return Arrays.equals(new String(asciiChars).getBytes(charset), asciiBytes);
+    }
+}
@@ -0,0 +1,48 @@
+// a request to enroll a specific student to a specific course, used when enrolling many students at once
+public class EnrollmentRequest {
+
+    // the student that asks to enroll
+    private Student student;
+    // the course the student asks to enroll to
+    private Course course;
+
+    // constructor
+    public EnrollmentRequest(Student student, Course course) {
+        setStudent(student);
+        setCourse(course);
+    }
+
+    // request student getter
+    public Student getStudent() {
+        return this.student;
+    }
+
+    // request course getter
+    public Course getCourse() {
+        return this.course;
+    }
+
+    // request student setter
+    public void setStudent(Student student) {
+        if (student == null) {
+            throw new NullPointerException("student cannot be null!");
+        }
+        this.student = student;
+    }
+
+    // request course setter
+    public void setCourse(Course course) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+        this.course = course;
+    }
+
+    @Override
+    public String toString() {
+        return "EnrollmentRequest{" +
+                "student=" + getStudent() +
+                ", course=" + getCourse() +
+                '}';
+    }
+}
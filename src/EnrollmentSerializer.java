@@ -1,16 +1,79 @@
 import java.io.*;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class EnrollmentSerializer {
 
+    // the compact format starts with these 4 bytes ("CMEN") followed by its version
+    public static final int COMPACT_MAGIC = 0x434D454E;
+    // the version of the compact format written by this class, version 1 files (without an index) can still be loaded
+    public static final short COMPACT_VERSION = 2;
+    // the first compact version, which had no index block
+    private static final short COMPACT_VERSION_WITHOUT_INDEX = 1;
+    // size of a single enrollment record of the compact format
+    public static final int COMPACT_RECORD_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    // size of the footer at the very end of a compact file: 3 offsets followed by the magic
+    public static final int COMPACT_FOOTER_SIZE = 3 * Long.BYTES + Integer.BYTES;
+    // the streaming format starts with these 4 bytes ("CMES") followed by its version
+    public static final int STREAM_MAGIC = 0x434D4553;
+    // the version of the streaming format written by this class
+    public static final short STREAM_VERSION = 1;
+    // streaming format flag, set when every chunk is compressed with DEFLATE
+    private static final int STREAM_FLAG_DEFLATE = 1;
+    // amount of enrollments in every chunk of the streaming format
+    public static final int STREAM_CHUNK_ENROLLMENTS = 4096;
+    // the most raw bytes a chunk of the streaming format may have, a chunk that would be larger is split in two
+    public static final int STREAM_MAX_CHUNK_LENGTH = 1 << 26;
+    // size of the buffers between our streams and the file
+    private static final int BUFFER_SIZE = 1 << 16;
+
     public static void save(List<Enrollment> enrollments, String filePath) throws IOException {
+        save(enrollments, filePath, EnrollmentFileFormat.JAVA_SERIALIZATION);
+    }
+
+    public static void save(List<Enrollment> enrollments, String filePath, EnrollmentFileFormat format) throws IOException {
         if (enrollments == null) {
             throw new NullPointerException("enrollments list cannot be null!");
         }
         if (filePath == null) {
             throw new NullPointerException("filePath string cannot be null!");
         }
+        if (format == null) {
+            throw new NullPointerException("format cannot be null!");
+        }
+        checkSaveFilePath(filePath);
 
+        if (format == EnrollmentFileFormat.COMPACT) {
+            saveCompact(enrollments, filePath);
+            return;
+        }
+
+        // create the stream, write the list, and close the stream. all IOExceptions and their descendants are propagated back to Main
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(filePath));
+        objectOutputStream.writeObject(enrollments);
+        objectOutputStream.close();
+    }
+
+    // makes sure enrollments can be saved to the given path
+    private static void checkSaveFilePath(String filePath) throws IOException {
         File serializedEnrollmentsFile = new File(filePath);
         File serializedEnrollmentsFileParentDirectory = serializedEnrollmentsFile.getParentFile();
         // if our file does not exist, all parent directories leading to our file must exist, or the creation of the file itself will fail
@@ -23,26 +86,444 @@ public class EnrollmentSerializer {
         if (serializedEnrollmentsFile.exists() && !serializedEnrollmentsFile.isFile()) {
             throw new IOException("cannot save enrollments, the given filePath does not point to a regular file!");
         }
-
-        // create the stream, write the list, and close the stream. all IOExceptions and their descendants are propagated back to Main
-        ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(filePath));
-        objectOutputStream.writeObject(enrollments);
-        objectOutputStream.close();
     }
 
     public static List<Enrollment> load(String filePath) throws IOException, ClassNotFoundException {
+        return load(filePath, EnrollmentFileFormat.JAVA_SERIALIZATION);
+    }
+
+    public static List<Enrollment> load(String filePath, EnrollmentFileFormat format) throws IOException, ClassNotFoundException {
         if (filePath == null) {
             throw new NullPointerException("filePath string cannot be null!");
         }
+        if (format == null) {
+            throw new NullPointerException("format cannot be null!");
+        }
         File serializedEnrollmentsFile = new File(filePath);
         if (!serializedEnrollmentsFile.exists() || !serializedEnrollmentsFile.isFile()) {
             throw new IOException("cannot load enrollments, filePath does not exist or does not point to a regular file!");
         }
 
+        if (format == EnrollmentFileFormat.COMPACT) {
+            return loadCompact(filePath);
+        }
+
         // create the stream, read the list, and close the stream. all IOExceptions and their descendants are propagated back to Main
         ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(filePath));
         List<Enrollment> deserialized = (List<Enrollment>) objectInputStream.readObject();
         objectInputStream.close();
         return deserialized;
     }
+
+    // the compact format is laid out as:
+    // [int magic][short version]
+    // [int student count][students sorted by id, see CatalogCodec.writeStudent]
+    // [course table sorted by code, see CatalogCodec.writeCourseTable]
+    // [int enrollment count][per enrollment: int student position, int course position, long timestamp epoch second]
+    // since version 2 an index block and a footer follow, so MappedEnrollmentReader can answer queries without
+    // reading the entire file:
+    // [long offset of every student][int start of every course inside the sorted records, plus the total at the end]
+    // [int number of every record, sorted by course position and then by student position]
+    // [long course table offset][long records offset][long index offset][int magic]
+    // timestamps are kept to the second and read back as UTC, enrollment equality never depended on them anyway
+    private static void saveCompact(List<Enrollment> enrollments, String filePath) throws IOException {
+        // students sorted by id and courses sorted by code, so a reader can binary search them
+        Map<Student, Integer> studentPositions = new LinkedHashMap<>();
+        Map<Course, Integer> coursePositions = new LinkedHashMap<>();
+        for (Enrollment enrollment: enrollments) {
+            studentPositions.putIfAbsent(enrollment.getStudent(), 0);
+            coursePositions.putIfAbsent(enrollment.getCourse(), 0);
+        }
+        List<Student> studentTable = new ArrayList<>(studentPositions.keySet());
+        studentTable.sort(Comparator.comparing(Student::getId));
+        for (int i = 0; i < studentTable.size(); i++) {
+            studentPositions.put(studentTable.get(i), i);
+        }
+        // the enrolled courses together with their prerequisites, which must be part of the table as well
+        List<Course> courseTable = CatalogCodec.withPrerequisites(coursePositions.keySet());
+        courseTable.sort(Comparator.comparing(Course::getCode));
+        for (int i = 0; i < courseTable.size(); i++) {
+            coursePositions.put(courseTable.get(i), i);
+        }
+
+        // the position of the student and course of every record
+        int[] studentOfRecord = new int[enrollments.size()];
+        int[] courseOfRecord = new int[enrollments.size()];
+        for (int i = 0; i < enrollments.size(); i++) {
+            studentOfRecord[i] = studentPositions.get(enrollments.get(i).getStudent());
+            courseOfRecord[i] = coursePositions.get(enrollments.get(i).getCourse());
+        }
+
+        DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath), BUFFER_SIZE));
+        try {
+            dataOutputStream.writeInt(COMPACT_MAGIC);
+            dataOutputStream.writeShort(COMPACT_VERSION);
+            dataOutputStream.writeInt(studentTable.size());
+            long[] studentOffsets = new long[studentTable.size()];
+            for (int i = 0; i < studentTable.size(); i++) {
+                studentOffsets[i] = dataOutputStream.size();
+                CatalogCodec.writeStudent(dataOutputStream, studentTable.get(i));
+            }
+            long courseTableOffset = dataOutputStream.size();
+            CatalogCodec.writeCourseTable(dataOutputStream, courseTable);
+            dataOutputStream.writeInt(enrollments.size());
+            long recordsOffset = dataOutputStream.size();
+            for (int i = 0; i < enrollments.size(); i++) {
+                dataOutputStream.writeInt(studentOfRecord[i]);
+                dataOutputStream.writeInt(courseOfRecord[i]);
+                dataOutputStream.writeLong(enrollments.get(i).getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            }
+
+            long indexOffset = dataOutputStream.size();
+            if (indexOffset == Integer.MAX_VALUE) {
+                // DataOutputStream stops counting at Integer.MAX_VALUE, so the offsets above cannot be trusted
+                throw new IOException("cannot save enrollments, the compact format is limited to 2GB!");
+            }
+            for (long studentOffset: studentOffsets) {
+                dataOutputStream.writeLong(studentOffset);
+            }
+            // bucket the records by course, and sort every bucket by student
+            int[] courseStart = new int[courseTable.size() + 1];
+            for (int course: courseOfRecord) {
+                courseStart[course + 1]++;
+            }
+            for (int i = 0; i < courseTable.size(); i++) {
+                courseStart[i + 1] += courseStart[i];
+            }
+            // every entry holds the student position in its high half and the record number in its low half,
+            // so sorting a bucket sorts it by student
+            long[] sortedRecords = new long[enrollments.size()];
+            int[] nextInBucket = Arrays.copyOf(courseStart, courseTable.size());
+            for (int i = 0; i < enrollments.size(); i++) {
+                sortedRecords[nextInBucket[courseOfRecord[i]]++] = ((long) studentOfRecord[i] << 32) | i;
+            }
+            for (int i = 0; i < courseTable.size(); i++) {
+                Arrays.sort(sortedRecords, courseStart[i], courseStart[i + 1]);
+            }
+            for (int start: courseStart) {
+                dataOutputStream.writeInt(start);
+            }
+            for (long sortedRecord: sortedRecords) {
+                dataOutputStream.writeInt((int) sortedRecord);
+            }
+
+            dataOutputStream.writeLong(courseTableOffset);
+            dataOutputStream.writeLong(recordsOffset);
+            dataOutputStream.writeLong(indexOffset);
+            dataOutputStream.writeInt(COMPACT_MAGIC);
+        } finally {
+            dataOutputStream.close();
+        }
+    }
+
+    private static List<Enrollment> loadCompact(String filePath) throws IOException {
+        long fileLength = new File(filePath).length();
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE));
+        try {
+            if (dataInputStream.readInt() != COMPACT_MAGIC) {
+                throw new IOException("cannot load enrollments, the file is not in the compact format!");
+            }
+            short version = dataInputStream.readShort();
+            if (version != COMPACT_VERSION && version != COMPACT_VERSION_WITHOUT_INDEX) {
+                throw new IOException("cannot load enrollments, unsupported compact format version '" + version + "'!");
+            }
+
+            int studentCount = dataInputStream.readInt();
+            if (studentCount < 0) {
+                throw new IOException("corrupt student table!");
+            }
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < studentCount; i++) {
+                students.add(CatalogCodec.readStudent(dataInputStream));
+            }
+            List<Course> courses = CatalogCodec.readCourseTable(dataInputStream);
+
+            int enrollmentCount = dataInputStream.readInt();
+            // every record has to fit into the file, checked before the list is sized by the count
+            if (enrollmentCount < 0 || (long) enrollmentCount * COMPACT_RECORD_SIZE > fileLength) {
+                throw new IOException("corrupt enrollment table!");
+            }
+            List<Enrollment> enrollments = new ArrayList<>(enrollmentCount);
+            for (int i = 0; i < enrollmentCount; i++) {
+                int studentPosition = dataInputStream.readInt();
+                int coursePosition = dataInputStream.readInt();
+                long epochSecond = dataInputStream.readLong();
+                if (studentPosition < 0 || studentPosition >= students.size() || coursePosition < 0 || coursePosition >= courses.size()) {
+                    throw new IOException("corrupt enrollment record!");
+                }
+                enrollments.add(new Enrollment(students.get(studentPosition), courses.get(coursePosition), timestampOf(epochSecond)));
+            }
+            // the index block and the footer are only there for MappedEnrollmentReader
+            return enrollments;
+        } finally {
+            dataInputStream.close();
+        }
+    }
+
+    // saves enrollments one chunk at a time, so only a single chunk is ever held in memory
+    // the streaming format is laid out as:
+    // [int magic][short version][byte flags]
+    // per chunk: [int raw length][int stored length][int crc32 of the raw bytes][stored bytes]
+    // [int 0] after the last chunk
+    // the raw bytes of a chunk are [int student count][students][course table][int enrollment count]
+    // [per enrollment: int student position, int course position, long timestamp epoch second], like the compact
+    // format but with tables of their own, so every chunk can be read without the ones before it
+    public static void saveStream(Iterator<Enrollment> enrollments, String filePath, boolean compressed) throws IOException {
+        if (enrollments == null) {
+            throw new NullPointerException("enrollments iterator cannot be null!");
+        }
+        if (filePath == null) {
+            throw new NullPointerException("filePath string cannot be null!");
+        }
+        checkSaveFilePath(filePath);
+
+        DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath), BUFFER_SIZE));
+        Deflater deflater = compressed ? new Deflater() : null;
+        try {
+            dataOutputStream.writeInt(STREAM_MAGIC);
+            dataOutputStream.writeShort(STREAM_VERSION);
+            dataOutputStream.writeByte(compressed ? STREAM_FLAG_DEFLATE : 0);
+
+            List<Enrollment> chunk = new ArrayList<>(STREAM_CHUNK_ENROLLMENTS);
+            while (enrollments.hasNext()) {
+                Enrollment enrollment = enrollments.next();
+                if (enrollment == null) {
+                    throw new NullPointerException("enrollment cannot be null!");
+                }
+                chunk.add(enrollment);
+                if (chunk.size() == STREAM_CHUNK_ENROLLMENTS) {
+                    writeChunk(dataOutputStream, chunk, deflater);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(dataOutputStream, chunk, deflater);
+            }
+            dataOutputStream.writeInt(0);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            dataOutputStream.close();
+        }
+    }
+
+    // same as saveStream(Iterator), for callers that hold a stream of enrollments
+    public static void saveStream(Stream<Enrollment> enrollments, String filePath, boolean compressed) throws IOException {
+        if (enrollments == null) {
+            throw new NullPointerException("enrollments stream cannot be null!");
+        }
+        saveStream(enrollments.iterator(), filePath, compressed);
+    }
+
+    // reads a file written by saveStream lazily, one chunk at a time, the returned stream must be closed to close the file
+    // a damaged chunk is reported as an UncheckedIOException once the stream reaches it
+    public static Stream<Enrollment> loadStream(String filePath) throws IOException {
+        if (filePath == null) {
+            throw new NullPointerException("filePath string cannot be null!");
+        }
+        File serializedEnrollmentsFile = new File(filePath);
+        if (!serializedEnrollmentsFile.exists() || !serializedEnrollmentsFile.isFile()) {
+            throw new IOException("cannot load enrollments, filePath does not exist or does not point to a regular file!");
+        }
+
+        long fileLength = serializedEnrollmentsFile.length();
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE));
+        boolean compressed;
+        try {
+            if (dataInputStream.readInt() != STREAM_MAGIC) {
+                throw new IOException("cannot load enrollments, the file is not in the streaming format!");
+            }
+            short version = dataInputStream.readShort();
+            if (version != STREAM_VERSION) {
+                throw new IOException("cannot load enrollments, unsupported streaming format version '" + version + "'!");
+            }
+            compressed = (dataInputStream.readByte() & STREAM_FLAG_DEFLATE) != 0;
+        } catch (IOException e) {
+            dataInputStream.close();
+            throw e;
+        }
+
+        Iterator<Enrollment> iterator = new Iterator<Enrollment>() {
+            // the enrollments of the current chunk
+            private Iterator<Enrollment> chunk = Collections.emptyIterator();
+            // set once the last chunk was read
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                while (!this.chunk.hasNext() && !this.finished) {
+                    try {
+                        List<Enrollment> enrollments = readChunk(dataInputStream, compressed, fileLength);
+                        if (enrollments == null) {
+                            this.finished = true;
+                        } else {
+                            this.chunk = enrollments.iterator();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return this.chunk.hasNext();
+            }
+
+            @Override
+            public Enrollment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.chunk.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        dataInputStream.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    // encodes, optionally compresses and writes a single chunk
+    private static void writeChunk(DataOutputStream dataOutputStream, List<Enrollment> chunk, Deflater deflater) throws IOException {
+        Map<Student, Integer> studentPositions = new LinkedHashMap<>();
+        Map<Course, Integer> coursePositions = new LinkedHashMap<>();
+        for (Enrollment enrollment: chunk) {
+            studentPositions.putIfAbsent(enrollment.getStudent(), studentPositions.size());
+            coursePositions.putIfAbsent(enrollment.getCourse(), coursePositions.size());
+        }
+        // the enrolled courses keep their positions, and their prerequisites are added after them
+        List<Course> courseTable = CatalogCodec.withPrerequisites(coursePositions.keySet());
+
+        ByteArrayOutputStream rawChunk = new ByteArrayOutputStream();
+        DataOutputStream chunkOutputStream = new DataOutputStream(rawChunk);
+        chunkOutputStream.writeInt(studentPositions.size());
+        for (Student student: studentPositions.keySet()) {
+            CatalogCodec.writeStudent(chunkOutputStream, student);
+        }
+        CatalogCodec.writeCourseTable(chunkOutputStream, courseTable);
+        chunkOutputStream.writeInt(chunk.size());
+        for (Enrollment enrollment: chunk) {
+            chunkOutputStream.writeInt(studentPositions.get(enrollment.getStudent()));
+            chunkOutputStream.writeInt(coursePositions.get(enrollment.getCourse()));
+            chunkOutputStream.writeLong(enrollment.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        }
+        byte[] raw = rawChunk.toByteArray();
+        if (raw.length > STREAM_MAX_CHUNK_LENGTH) {
+            if (chunk.size() == 1) {
+                throw new IOException("enrollment is too large to be saved in a single chunk!");
+            }
+            // readers refuse larger chunks, so the enrollments go into two smaller ones
+            int half = chunk.size() / 2;
+            writeChunk(dataOutputStream, chunk.subList(0, half), deflater);
+            writeChunk(dataOutputStream, chunk.subList(half, chunk.size()), deflater);
+            return;
+        }
+
+        byte[] stored = raw;
+        if (deflater != null) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressedChunk = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                compressedChunk.write(buffer, 0, count);
+            }
+            stored = compressedChunk.toByteArray();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        dataOutputStream.writeInt(raw.length);
+        dataOutputStream.writeInt(stored.length);
+        dataOutputStream.writeInt((int) crc.getValue());
+        dataOutputStream.write(stored);
+    }
+
+    // turns a stored epoch second back into a timestamp, a value no timestamp can have means the file is corrupt
+    private static LocalDateTime timestampOf(long epochSecond) throws IOException {
+        try {
+            return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            throw new IOException("corrupt enrollment record!", e);
+        }
+    }
+
+    // reads, decompresses, checks and decodes a single chunk, returns null after the last chunk
+    // the lengths are checked against the largest chunk a writer makes and against the file length before anything
+    // is allocated, the checksum can only be checked once the chunk was read
+    private static List<Enrollment> readChunk(DataInputStream dataInputStream, boolean compressed, long fileLength) throws IOException {
+        int rawLength = dataInputStream.readInt();
+        if (rawLength == 0) {
+            return null;
+        }
+        int storedLength = dataInputStream.readInt();
+        int expectedCrc = dataInputStream.readInt();
+        if (rawLength < 0 || rawLength > STREAM_MAX_CHUNK_LENGTH || storedLength < 0 || storedLength > fileLength) {
+            throw new IOException("corrupt enrollment chunk!");
+        }
+        byte[] stored = new byte[storedLength];
+        dataInputStream.readFully(stored);
+
+        byte[] raw = stored;
+        if (compressed) {
+            raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(stored);
+                int inflated = 0;
+                while (inflated < rawLength && !inflater.finished()) {
+                    int count = inflater.inflate(raw, inflated, rawLength - inflated);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                if (inflated != rawLength) {
+                    throw new IOException("corrupt enrollment chunk!");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("corrupt enrollment chunk!", e);
+            } finally {
+                inflater.end();
+            }
+        } else if (storedLength != rawLength) {
+            throw new IOException("corrupt enrollment chunk!");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("enrollment chunk failed its checksum!");
+        }
+
+        DataInputStream chunkInputStream = new DataInputStream(new ByteArrayInputStream(raw));
+        int studentCount = chunkInputStream.readInt();
+        if (studentCount < 0) {
+            throw new IOException("corrupt student table!");
+        }
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < studentCount; i++) {
+            students.add(CatalogCodec.readStudent(chunkInputStream));
+        }
+        List<Course> courses = CatalogCodec.readCourseTable(chunkInputStream);
+        int enrollmentCount = chunkInputStream.readInt();
+        if (enrollmentCount < 0 || (long) enrollmentCount * COMPACT_RECORD_SIZE > raw.length) {
+            throw new IOException("corrupt enrollment table!");
+        }
+        List<Enrollment> enrollments = new ArrayList<>(enrollmentCount);
+        for (int i = 0; i < enrollmentCount; i++) {
+            int studentPosition = chunkInputStream.readInt();
+            int coursePosition = chunkInputStream.readInt();
+            long epochSecond = chunkInputStream.readLong();
+            if (studentPosition < 0 || studentPosition >= students.size() || coursePosition < 0 || coursePosition >= courses.size()) {
+                throw new IOException("corrupt enrollment record!");
+            }
+            enrollments.add(new Enrollment(students.get(studentPosition), courses.get(coursePosition), timestampOf(epochSecond)));
+        }
+        return enrollments;
+    }
 }
@@ -0,0 +1,14 @@
+// the outcome of a single enrollment attempt
+public enum EnrollmentStatus {
+    // the student was enrolled to the course
+    ACCEPTED,
+    // the student was enrolled to the course and holds the seat, but the journal failed to make the enrollment
+    // durable, so it may be lost on a crash (see EnrollmentJournal.getFailure)
+    ACCEPTED_NOT_DURABLE,
+    // the course already reached its capacity
+    COURSE_FULL,
+    // the student is already enrolled to the course
+    DUPLICATE,
+    // the student did not enroll to one of the prerequisites of the course
+    PREREQUISITE_MISSING
+}
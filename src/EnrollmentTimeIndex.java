@@ -0,0 +1,202 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// the enrollments ordered by their timestamp, once for all of them and once for every course, so asking who enrolled
+// within a time range is a binary search instead of a scan over every enrollment
+// every timeline keeps its timestamps as sorted primitive arrays of epoch seconds and nanos (the timestamps are taken
+// as UTC, any fixed offset keeps the same order), with the enrollments in a parallel array
+// enrollments usually arrive in time order, so adding one is an append, one that arrives a bit late is moved into
+// place, queries may run while enrollments are being added - they share a read lock, and adding takes the write lock
+public class EnrollmentTimeIndex {
+
+    // the size every timeline starts with
+    private static final int INITIAL_CAPACITY = 16;
+
+    // all the enrollments
+    private Timeline allEnrollments = new Timeline();
+    // the enrollments of every course
+    private Map<Course, Timeline> enrollmentsPerCourse = new HashMap<>();
+    // guards both of the above
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // adds an enrollment to the index
+    public void add(Enrollment enrollment) {
+        if (enrollment == null) {
+            throw new NullPointerException("enrollment cannot be null!");
+        }
+        this.lock.writeLock().lock();
+        try {
+            this.allEnrollments.add(enrollment);
+            this.enrollmentsPerCourse.computeIfAbsent(enrollment.getCourse(), key -> new Timeline()).add(enrollment);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    // returns the amount of enrollments in the index
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.allEnrollments.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // returns the enrollments made from the given time (inclusive) until the given time (exclusive), in time order
+    public List<Enrollment> getEnrollmentsBetween(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        this.lock.readLock().lock();
+        try {
+            return this.allEnrollments.between(from, to);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // returns the enrollments to a course made from the given time (inclusive) until the given time (exclusive),
+    // in time order
+    public List<Enrollment> getEnrollmentsBetween(Course course, LocalDateTime from, LocalDateTime to) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+        checkRange(from, to);
+        this.lock.readLock().lock();
+        try {
+            Timeline courseEnrollments = this.enrollmentsPerCourse.get(course);
+            return courseEnrollments == null ? new ArrayList<>() : courseEnrollments.between(from, to);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // returns the amount of enrollments made from the given time (inclusive) until the given time (exclusive),
+    // without collecting them
+    public int countBetween(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        this.lock.readLock().lock();
+        try {
+            return this.allEnrollments.countBetween(from, to);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // returns the amount of enrollments to a course made from the given time (inclusive) until the given time
+    // (exclusive), without collecting them
+    public int countBetween(Course course, LocalDateTime from, LocalDateTime to) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+        checkRange(from, to);
+        this.lock.readLock().lock();
+        try {
+            Timeline courseEnrollments = this.enrollmentsPerCourse.get(course);
+            return courseEnrollments == null ? 0 : courseEnrollments.countBetween(from, to);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // makes sure a time range is valid
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new NullPointerException("time range cannot be null!");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("time range cannot start after it ends!");
+        }
+    }
+
+    // enrollments sorted by timestamp, enrollments with the same timestamp stay in the order they were added
+    private static class Timeline {
+        // the timestamps, such that the i-th enrollment was made at epochSeconds[i] and nanos[i]
+        private long[] epochSeconds = new long[INITIAL_CAPACITY];
+        private int[] nanos = new int[INITIAL_CAPACITY];
+        private Enrollment[] enrollments = new Enrollment[INITIAL_CAPACITY];
+        private int size;
+
+        // puts the enrollment after every enrollment made at the same time or before it
+        private void add(Enrollment enrollment) {
+            LocalDateTime timestamp = enrollment.getTimestamp();
+            long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+            int nano = timestamp.getNano();
+            if (this.size == this.enrollments.length) {
+                int grownLength = this.size * 2;
+                this.epochSeconds = Arrays.copyOf(this.epochSeconds, grownLength);
+                this.nanos = Arrays.copyOf(this.nanos, grownLength);
+                this.enrollments = Arrays.copyOf(this.enrollments, grownLength);
+            }
+            int position = this.size;
+            if (position > 0 && compare(position - 1, epochSecond, nano) > 0) {
+                // a late enrollment, only the enrollments made after it are moved
+                position = firstAfter(epochSecond, nano);
+                int moved = this.size - position;
+                System.arraycopy(this.epochSeconds, position, this.epochSeconds, position + 1, moved);
+                System.arraycopy(this.nanos, position, this.nanos, position + 1, moved);
+                System.arraycopy(this.enrollments, position, this.enrollments, position + 1, moved);
+            }
+            this.epochSeconds[position] = epochSecond;
+            this.nanos[position] = nano;
+            this.enrollments[position] = enrollment;
+            this.size++;
+        }
+
+        // returns the enrollments made within [from, to)
+        private List<Enrollment> between(LocalDateTime from, LocalDateTime to) {
+            int start = firstAtOrAfter(from);
+            int end = firstAtOrAfter(to);
+            return new ArrayList<>(Arrays.asList(this.enrollments).subList(start, end));
+        }
+
+        // returns the amount of enrollments made within [from, to)
+        private int countBetween(LocalDateTime from, LocalDateTime to) {
+            return firstAtOrAfter(to) - firstAtOrAfter(from);
+        }
+
+        // returns the position of the first enrollment made at the given time or after it
+        private int firstAtOrAfter(LocalDateTime timestamp) {
+            long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+            int nano = timestamp.getNano();
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, epochSecond, nano) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // returns the position of the first enrollment made after the given time
+        private int firstAfter(long epochSecond, int nano) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, epochSecond, nano) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // compares the timestamp at a position with the given one
+        private int compare(int position, long epochSecond, int nano) {
+            int comparison = Long.compare(this.epochSeconds[position], epochSecond);
+            return comparison != 0 ? comparison : Integer.compare(this.nanos[position], nano);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// hands out dense int ids to values, the first value interned gets id 0, the next one gets id 1 and so on
+// two values that are equal always get the same id, so the id can be used instead of the value itself
+public class IdInterner<T> {
+
+    // the id of every value interned so far
+    private final Map<T, Integer> idPerValue = new ConcurrentHashMap<>();
+    // the interned values, such that values.get(i) is the value whose id is i
+    private final List<T> values = new ArrayList<>();
+
+    // returns the id of the given value, interning it first if it was never seen before
+    public int intern(T value) {
+        if (value == null) {
+            throw new NullPointerException("interned value cannot be null!");
+        }
+        Integer id = this.idPerValue.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            // another thread may have interned the value while we were waiting
+            id = this.idPerValue.get(value);
+            if (id == null) {
+                id = this.values.size();
+                this.values.add(value);
+                this.idPerValue.put(value, id);
+            }
+            return id;
+        }
+    }
+
+    // returns the id of the given value, or -1 if it was never interned
+    public int idOf(T value) {
+        if (value == null) {
+            throw new NullPointerException("interned value cannot be null!");
+        }
+        Integer id = this.idPerValue.get(value);
+        return id == null ? -1 : id;
+    }
+
+    // returns the value whose id is the given id
+    public synchronized T valueOf(int id) {
+        if (id < 0 || id >= this.values.size()) {
+            throw new IllegalArgumentException("no value was interned with id '" + id + "'!");
+        }
+        return this.values.get(id);
+    }
+
+    // returns the amount of values interned so far
+    public synchronized int size() {
+        return this.values.size();
+    }
+}
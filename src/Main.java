@@ -4,13 +4,15 @@ public class Main {
     public static void main(String[] args) {
         try {
             System.out.println("=== Step 1: Loading students and courses from files ===\n");
-            StudentFileLoader studentLoader = new StudentFileLoader();
-            List<Student> students = studentLoader.load("data/students.txt");
+            StartupPipeline startup = new StartupPipeline("data/students.txt", "data/courses.txt");
+            startup.run();
+            List<Student> students = startup.getStudents();
             System.out.println("Loaded " + students.size() + " students");
 
-            CourseFileLoader courseLoader = new CourseFileLoader();
-            List<Course> courses = courseLoader.load("data/courses.txt");
+            List<Course> courses = startup.getCourses();
             System.out.println("Loaded " + courses.size() + " courses\n");
+            System.out.print(startup.getTimingReport());
+            System.out.println();
 
             System.out.println("=== Step 2: Printing students and courses ===\n");
             for (Student s : students) {
@@ -47,7 +49,9 @@ public class Main {
 
             System.out.println("=== Step 5: Generating text report ===");
             ReportGenerator.writeEnrollmentReport("output/enrollment_report.txt", manager.getAllEnrollments());
-            System.out.println("File enrollment_report.txt created successfully\n");
+            System.out.println("File enrollment_report.txt created successfully");
+            ReportGenerator.writeSummaryReport("output/enrollment_summary.txt", manager.getAllEnrollments());
+            System.out.println("File enrollment_summary.txt created successfully\n");
 
             System.out.println("=== Step 6: Testing CollectionUtils ===");
             List<String> names = List.of("Dana", "Amir", "Dana", "Yossi", "Amir");
@@ -57,6 +61,16 @@ public class Main {
             List<String> duplicates = CollectionUtils.findDuplicates(names);
             System.out.println("Detected duplicates: " + duplicates);
 
+            System.out.println("\n=== Step 7: Comparing the catalog loaders ===");
+            List<String> mismatches = CatalogLoaderCheck.check();
+            if (mismatches.isEmpty()) {
+                System.out.println("load, loadMapped and loadParallel agree on every checked file");
+            } else {
+                for (String mismatch : mismatches) {
+                    System.out.println("Issue: " + mismatch);
+                }
+            }
+
             System.out.println("\nAll steps completed successfully");
 
         } catch (Exception e) {
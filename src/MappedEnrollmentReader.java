@@ -0,0 +1,262 @@
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// answers queries straight from a compact enrollment file (version 2 and up) mapped into memory, without loading it
+// only the course table is decoded when the file is opened, students and enrollments are decoded when asked for,
+// using the index block written by EnrollmentSerializer (see the layout described there)
+public class MappedEnrollmentReader {
+
+    // the mapped file
+    private MappedByteBuffer buffer;
+    // the decoded course table
+    private List<Course> courses;
+    // the position of every course inside the course table
+    private Map<String, Integer> positionPerCourseCode;
+    // amount of students in the student table
+    private int studentCount;
+    // amount of enrollment records
+    private int enrollmentCount;
+    // where the enrollment records start
+    private int recordsOffset;
+    // where the student offsets of the index block start
+    private int studentOffsetsOffset;
+    // where the course starts of the index block start
+    private int courseStartsOffset;
+    // where the sorted record numbers of the index block start
+    private int sortedRecordsOffset;
+
+    // constructor, maps the file and reads its header, footer and course table
+    public MappedEnrollmentReader(String filePath) throws IOException {
+        if (filePath == null) {
+            throw new NullPointerException("filePath string cannot be null!");
+        }
+        File enrollmentsFile = new File(filePath);
+        if (!enrollmentsFile.exists() || !enrollmentsFile.isFile()) {
+            throw new IOException("cannot read enrollments, filePath does not exist or does not point to a regular file!");
+        }
+
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("cannot map enrollments, the file is larger than 2GB!");
+            }
+            // the mapping stays valid after the channel is closed
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+
+        int fileSize = this.buffer.capacity();
+        if (fileSize < Integer.BYTES + Short.BYTES + EnrollmentSerializer.COMPACT_FOOTER_SIZE
+                || this.buffer.getInt(0) != EnrollmentSerializer.COMPACT_MAGIC
+                || this.buffer.getInt(fileSize - Integer.BYTES) != EnrollmentSerializer.COMPACT_MAGIC) {
+            throw new IOException("cannot read enrollments, the file is not in the compact format!");
+        }
+        short version = this.buffer.getShort(Integer.BYTES);
+        if (version < EnrollmentSerializer.COMPACT_VERSION) {
+            throw new IOException("cannot read enrollments, compact format version '" + version + "' has no index!");
+        }
+
+        int footerOffset = fileSize - EnrollmentSerializer.COMPACT_FOOTER_SIZE;
+        int courseTableOffset = (int) this.buffer.getLong(footerOffset);
+        this.recordsOffset = (int) this.buffer.getLong(footerOffset + Long.BYTES);
+        int indexOffset = (int) this.buffer.getLong(footerOffset + 2 * Long.BYTES);
+
+        this.studentCount = this.buffer.getInt(Integer.BYTES + Short.BYTES);
+        this.enrollmentCount = this.buffer.getInt(this.recordsOffset - Integer.BYTES);
+        this.courses = CatalogCodec.readCourseTable(inputAt(courseTableOffset));
+        this.positionPerCourseCode = new HashMap<>();
+        for (int i = 0; i < this.courses.size(); i++) {
+            this.positionPerCourseCode.put(this.courses.get(i).getCode(), i);
+        }
+
+        this.studentOffsetsOffset = indexOffset;
+        this.courseStartsOffset = this.studentOffsetsOffset + this.studentCount * Long.BYTES;
+        this.sortedRecordsOffset = this.courseStartsOffset + (this.courses.size() + 1) * Integer.BYTES;
+    }
+
+    // returns the amount of enrollments in the file
+    public int count() {
+        return this.enrollmentCount;
+    }
+
+    // returns the amount of enrollments to a course
+    public int countForCourse(String courseCode) {
+        int coursePosition = coursePosition(courseCode);
+        if (coursePosition < 0) {
+            return 0;
+        }
+        return courseStart(coursePosition + 1) - courseStart(coursePosition);
+    }
+
+    // returns true if the student is enrolled to the course, using two binary searches
+    public boolean isEnrolled(String studentId, String courseCode) throws IOException {
+        int coursePosition = coursePosition(courseCode);
+        int studentPosition = studentPosition(studentId);
+        if (coursePosition < 0 || studentPosition < 0) {
+            return false;
+        }
+        // the records of a course are sorted by student position
+        int low = courseStart(coursePosition);
+        int high = courseStart(coursePosition + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleStudent = studentOfRecord(sortedRecord(middle));
+            if (middleStudent < studentPosition) {
+                low = middle + 1;
+            } else if (middleStudent > studentPosition) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // returns the enrollment stored at the given position of the file
+    public Enrollment get(int recordNumber) throws IOException {
+        if (recordNumber < 0 || recordNumber >= this.enrollmentCount) {
+            throw new IndexOutOfBoundsException("no enrollment record '" + recordNumber + "'!");
+        }
+        int recordOffset = this.recordsOffset + recordNumber * EnrollmentSerializer.COMPACT_RECORD_SIZE;
+        int studentPosition = this.buffer.getInt(recordOffset);
+        int coursePosition = this.buffer.getInt(recordOffset + Integer.BYTES);
+        long epochSecond = this.buffer.getLong(recordOffset + 2 * Integer.BYTES);
+        if (studentPosition < 0 || studentPosition >= this.studentCount || coursePosition < 0 || coursePosition >= this.courses.size()) {
+            throw new IOException("corrupt enrollment record!");
+        }
+        return new Enrollment(student(studentPosition), this.courses.get(coursePosition), LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+
+    // returns the enrollments to a course ordered by student id, every enrollment is only decoded once it is reached
+    public Iterator<Enrollment> enrollmentsForCourse(String courseCode) {
+        int coursePosition = coursePosition(courseCode);
+        int from = coursePosition < 0 ? 0 : courseStart(coursePosition);
+        int to = coursePosition < 0 ? 0 : courseStart(coursePosition + 1);
+        return new Iterator<Enrollment>() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < to;
+            }
+
+            @Override
+            public Enrollment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return get(sortedRecord(this.next++));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    // returns the position of a course inside the course table, or -1 if there is no such course
+    private int coursePosition(String courseCode) {
+        if (courseCode == null) {
+            throw new NullPointerException("course code cannot be null!");
+        }
+        Integer position = this.positionPerCourseCode.get(courseCode);
+        return position == null ? -1 : position;
+    }
+
+    // returns the position of a student inside the student table, or -1 if there is no such student
+    // the table is sorted by id, so only the ids met by the binary search are decoded
+    private int studentPosition(String studentId) throws IOException {
+        if (studentId == null) {
+            throw new NullPointerException("student id cannot be null!");
+        }
+        int low = 0;
+        int high = this.studentCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = inputAt(studentOffset(middle)).readUTF().compareTo(studentId);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    // decodes the student at the given position of the student table
+    private Student student(int studentPosition) throws IOException {
+        return CatalogCodec.readStudent(inputAt(studentOffset(studentPosition)));
+    }
+
+    private int studentOffset(int studentPosition) {
+        return (int) this.buffer.getLong(this.studentOffsetsOffset + studentPosition * Long.BYTES);
+    }
+
+    private int courseStart(int coursePosition) {
+        return this.buffer.getInt(this.courseStartsOffset + coursePosition * Integer.BYTES);
+    }
+
+    private int sortedRecord(int sortedPosition) {
+        return this.buffer.getInt(this.sortedRecordsOffset + sortedPosition * Integer.BYTES);
+    }
+
+    private int studentOfRecord(int recordNumber) {
+        return this.buffer.getInt(this.recordsOffset + recordNumber * EnrollmentSerializer.COMPACT_RECORD_SIZE);
+    }
+
+    // returns a stream that reads the mapped file from the given offset, without copying it
+    private DataInputStream inputAt(int offset) {
+        return new DataInputStream(new MappedInputStream(this.buffer, offset));
+    }
+
+    // an input stream over the mapped file, starting at some offset
+    private static class MappedInputStream extends InputStream {
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private MappedInputStream(MappedByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        @Override
+        public int read() {
+            if (this.position >= this.buffer.capacity()) {
+                return -1;
+            }
+            return this.buffer.get(this.position++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int available = this.buffer.capacity() - this.position;
+            if (available <= 0) {
+                return -1;
+            }
+            int count = Math.min(length, available);
+            this.buffer.get(this.position, bytes, offset, count);
+            this.position += count;
+            return count;
+        }
+    }
+}
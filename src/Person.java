@@ -3,10 +3,13 @@ import java.io.Serializable;
 // implements Serializable to make Student Serializable
 public abstract class Person implements Serializable {
 
+    // the serialVersionUID the class always had, so files saved before the fields became volatile still load
+    private static final long serialVersionUID = -7511562721754820528L;
+
     // person id
     protected String id;
-    // person name
-    protected String name;
+    // person name, volatile since the catalog watcher renames people while others read them
+    protected volatile String name;
 
     // constructor
     public Person(String id, String name) {
@@ -32,7 +35,11 @@ public abstract class Person implements Serializable {
         if (personId.isBlank()) {
             throw new IllegalArgumentException("id of a person cannot be empty!");
         }
+        String previousId = this.id;
         this.id = personId.trim();
+        if (previousId != null && !previousId.equals(this.id)) {
+            CatalogVersion.bump();
+        }
     }
 
     // person name setter
@@ -43,7 +50,11 @@ public abstract class Person implements Serializable {
         if (personName.isBlank()) {
             throw new IllegalArgumentException("name cannot be empty!");
         }
+        String previousName = this.name;
         this.name = personName.trim();
+        if (previousName != null && !previousName.equals(this.name)) {
+            CatalogVersion.bump();
+        }
     }
 
     // people are uniquely defined by their id, only the id determines equality
@@ -58,6 +69,12 @@ public abstract class Person implements Serializable {
         return false;
     }
 
+    // must agree with equals, so only the id is hashed
+    @Override
+    public int hashCode() {
+        return getId().hashCode();
+    }
+
     @Override
     public String toString() {
         return "Person{" +
@@ -0,0 +1,312 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the prerequisite graph of a course catalog, with the direct and the transitive prerequisites of every course
+// stored as bitsets over the courses of the graph, so asking whether a course depends on another is a single bit test
+// and asking which courses a student may enroll to is a single bitwise pass over the catalog
+// the graph remembers the prerequisite stamp of the whole catalog (see Course.getPrerequisiteStamp), so a query only
+// reads the stamp to know nothing changed. once it moved, the prerequisite version of every one of the courses of the
+// graph is compared, and the graph is rebuilt only if the prerequisites of one of them changed - changes to courses
+// outside the graph, including creating new courses, never make it stale
+// the bitsets are built into a new Closure and published with a single volatile write, so a query always sees one
+// complete closure, and a rebuild that fails on a cycle leaves the last good closure in place
+public class PrerequisiteGraph {
+
+    // amount of bits in a single word of a bitset
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    // the catalog the graph was asked to cover
+    private List<Course> catalog;
+    // the bitsets of the catalog as they were last built successfully
+    private volatile Closure closure;
+
+    // constructor, throws IllegalArgumentException if some course is its own prerequisite, directly or indirectly
+    public PrerequisiteGraph(Collection<Course> catalog) {
+        if (catalog == null) {
+            throw new NullPointerException("course catalog cannot be null!");
+        }
+        List<Course> catalogCopy = new ArrayList<>();
+        for (Course course: catalog) {
+            if (course == null) {
+                throw new NullPointerException("course catalog cannot contain null courses!");
+            }
+            catalogCopy.add(course);
+        }
+        this.catalog = Collections.unmodifiableList(catalogCopy);
+        this.closure = build(this.catalog);
+    }
+
+    // list of all courses in the graph getter
+    public List<Course> getCourses() {
+        return Collections.unmodifiableList(current().courses);
+    }
+
+    // returns true if the prerequisite is needed for the course, directly or through other prerequisites
+    public boolean requires(Course course, Course prerequisite) {
+        if (course == null || prerequisite == null) {
+            throw new NullPointerException("courses cannot be null!");
+        }
+        Closure current = current();
+        Integer courseIndex = current.indexPerCourse.get(course);
+        Integer prerequisiteIndex = current.indexPerCourse.get(prerequisite);
+        if (courseIndex == null || prerequisiteIndex == null) {
+            return false;
+        }
+        return isSet(current.allPrerequisites[courseIndex], prerequisiteIndex);
+    }
+
+    // returns the direct and indirect prerequisites of a course
+    public List<Course> getAllPrerequisites(Course course) {
+        if (course == null) {
+            throw new NullPointerException("course cannot be null!");
+        }
+        Closure current = current();
+        Integer courseIndex = current.indexPerCourse.get(course);
+        if (courseIndex == null) {
+            return new ArrayList<>();
+        }
+        return current.coursesOf(current.allPrerequisites[courseIndex]);
+    }
+
+    // returns the courses of the catalog the student may enroll to right now, those are the courses the student
+    // is not enrolled to yet and whose direct prerequisites the student is already enrolled to
+    // (the TA said an enrollment counts as meeting the prerequisite)
+    public List<Course> getEligibleCourses(Student student, EnrollmentManager manager) {
+        if (student == null) {
+            throw new NullPointerException("student cannot be null!");
+        }
+        if (manager == null) {
+            throw new NullPointerException("enrollment manager cannot be null!");
+        }
+        Closure current = current();
+
+        // the courses the student is enrolled to, as a bitset over the graph
+        long[] enrolled = new long[current.wordCount()];
+        for (Enrollment enrollment: manager.getEnrollmentsForStudent(student)) {
+            Integer courseIndex = current.indexPerCourse.get(enrollment.getCourse());
+            if (courseIndex != null) {
+                enrolled[courseIndex / BITS_PER_WORD] |= 1L << courseIndex;
+            }
+        }
+
+        List<Course> eligibleCourses = new ArrayList<>();
+        for (int i = 0; i < this.catalog.size(); i++) {
+            if (!isSet(enrolled, i) && isSubset(current.directPrerequisites[i], enrolled)) {
+                eligibleCourses.add(current.courses.get(i));
+            }
+        }
+        return eligibleCourses;
+    }
+
+    // returns the closure to answer a query with, rebuilding it first if the prerequisites of any of its courses
+    // changed since it was built
+    // throws IllegalArgumentException if the changed prerequisites hold a cycle, the last good closure is kept, and
+    // the next query tries again
+    private Closure current() {
+        Closure current = this.closure;
+        if (current.stamp == Course.getPrerequisiteStamp()) {
+            return current;
+        }
+        synchronized (this) {
+            // another query may have rebuilt it while we were waiting
+            current = this.closure;
+            int stamp = Course.getPrerequisiteStamp();
+            if (current.stamp != stamp) {
+                // the stamp is read before the versions, so a change made from here on moves it again
+                current = current.isStale() ? build(this.catalog) : current.withStamp(stamp);
+                this.closure = current;
+            }
+            return current;
+        }
+    }
+
+    // assigns a bit to every course, fills in the direct prerequisites and computes the transitive closure
+    private static Closure build(List<Course> catalog) {
+        Closure closure = new Closure();
+        closure.stamp = Course.getPrerequisiteStamp();
+        for (Course course: catalog) {
+            closure.addCourse(course);
+        }
+        // prerequisites that are not part of the catalog still get a bit, so the closure can go through them
+        // the prerequisites of every course are read once, right after its version, so a change that happens while we
+        // build is caught by the next query
+        List<List<Course>> prerequisitesPerCourse = new ArrayList<>();
+        closure.versions = new int[0];
+        for (int i = 0; i < closure.courses.size(); i++) {
+            Course course = closure.courses.get(i);
+            closure.versions = appended(closure.versions, i, course.getPrerequisiteVersion());
+            List<Course> prerequisites = new ArrayList<>(course.getPrerequisites());
+            prerequisitesPerCourse.add(prerequisites);
+            for (Course prerequisite: prerequisites) {
+                closure.addCourse(prerequisite);
+            }
+        }
+
+        int courseCount = closure.courses.size();
+        int words = closure.wordCount();
+        closure.directPrerequisites = new long[courseCount][words];
+        for (int i = 0; i < courseCount; i++) {
+            for (Course prerequisite: prerequisitesPerCourse.get(i)) {
+                int prerequisiteIndex = closure.indexPerCourse.get(prerequisite);
+                closure.directPrerequisites[i][prerequisiteIndex / BITS_PER_WORD] |= 1L << prerequisiteIndex;
+            }
+        }
+
+        // the courses are taken in topological order - a course only once the closure of every one of its
+        // prerequisites is known - so no chain of prerequisites is ever walked on the stack
+        int[][] dependentsPerCourse = new int[courseCount][];
+        int[] dependentCounts = new int[courseCount];
+        int[] missingPrerequisites = new int[courseCount];
+        for (int i = 0; i < courseCount; i++) {
+            dependentsPerCourse[i] = new int[0];
+        }
+        for (int i = 0; i < courseCount; i++) {
+            for (Course prerequisite: prerequisitesPerCourse.get(i)) {
+                int prerequisiteIndex = closure.indexPerCourse.get(prerequisite);
+                dependentsPerCourse[prerequisiteIndex] = appended(dependentsPerCourse[prerequisiteIndex], dependentCounts[prerequisiteIndex]++, i);
+                missingPrerequisites[i]++;
+            }
+        }
+        int[] order = new int[courseCount];
+        int orderedCount = 0;
+        for (int i = 0; i < courseCount; i++) {
+            if (missingPrerequisites[i] == 0) {
+                order[orderedCount++] = i;
+            }
+        }
+        closure.allPrerequisites = new long[courseCount][];
+        for (int next = 0; next < orderedCount; next++) {
+            int courseIndex = order[next];
+            long[] courseClosure = closure.directPrerequisites[courseIndex].clone();
+            for (Course prerequisite: prerequisitesPerCourse.get(courseIndex)) {
+                or(courseClosure, closure.allPrerequisites[closure.indexPerCourse.get(prerequisite)]);
+            }
+            closure.allPrerequisites[courseIndex] = courseClosure;
+            for (int i = 0; i < dependentCounts[courseIndex]; i++) {
+                int dependentIndex = dependentsPerCourse[courseIndex][i];
+                if (--missingPrerequisites[dependentIndex] == 0) {
+                    order[orderedCount++] = dependentIndex;
+                }
+            }
+        }
+        if (orderedCount < courseCount) {
+            throw new IllegalArgumentException("course '" + closure.courses.get(courseOnCycle(closure, prerequisitesPerCourse)).getCode() + "' is a prerequisite of itself!");
+        }
+        return closure;
+    }
+
+    // returns a course that sits on a cycle, once the topological order got stuck. every course left without a
+    // closure has a prerequisite that is also left without one, so following those long enough ends up on a cycle
+    private static int courseOnCycle(Closure closure, List<List<Course>> prerequisitesPerCourse) {
+        int courseIndex = 0;
+        while (closure.allPrerequisites[courseIndex] != null) {
+            courseIndex++;
+        }
+        for (int step = 0; step < closure.courses.size(); step++) {
+            for (Course prerequisite: prerequisitesPerCourse.get(courseIndex)) {
+                int prerequisiteIndex = closure.indexPerCourse.get(prerequisite);
+                if (closure.allPrerequisites[prerequisiteIndex] == null) {
+                    courseIndex = prerequisiteIndex;
+                    break;
+                }
+            }
+        }
+        return courseIndex;
+    }
+
+    // returns the array with the value put at the given index, growing it if needed
+    private static int[] appended(int[] values, int index, int value) {
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, Math.max(16, values.length * 2));
+        }
+        values[index] = value;
+        return values;
+    }
+
+    // the bitsets of the graph as they were built at one point in time, never changed once published
+    private static class Closure {
+        // all the courses of the graph - the catalog followed by any prerequisite that is not part of the catalog
+        private List<Course> courses = new ArrayList<>();
+        // the position of every course inside the courses list, which is also its bit inside every bitset
+        private Map<Course, Integer> indexPerCourse = new HashMap<>();
+        // directPrerequisites[i] is the bitset of the direct prerequisites of courses.get(i)
+        private long[][] directPrerequisites;
+        // allPrerequisites[i] is the bitset of the direct and indirect prerequisites of courses.get(i)
+        private long[][] allPrerequisites;
+        // versions[i] is the prerequisite version of courses.get(i) the bitsets were built for
+        private int[] versions;
+        // the prerequisite stamp of the catalog the versions were last checked against
+        private int stamp;
+
+        // helper method to give a course a bit, unless it already has one
+        private void addCourse(Course course) {
+            if (!this.indexPerCourse.containsKey(course)) {
+                this.indexPerCourse.put(course, this.courses.size());
+                this.courses.add(course);
+            }
+        }
+
+        // returns the same bitsets, checked against a newer stamp
+        private Closure withStamp(int newStamp) {
+            Closure closure = new Closure();
+            closure.courses = this.courses;
+            closure.indexPerCourse = this.indexPerCourse;
+            closure.directPrerequisites = this.directPrerequisites;
+            closure.allPrerequisites = this.allPrerequisites;
+            closure.versions = this.versions;
+            closure.stamp = newStamp;
+            return closure;
+        }
+
+        // returns true if the prerequisites of any course of the graph changed since the bitsets were built
+        private boolean isStale() {
+            for (int i = 0; i < this.courses.size(); i++) {
+                if (this.courses.get(i).getPrerequisiteVersion() != this.versions[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // amount of words in every bitset
+        private int wordCount() {
+            return (this.courses.size() + BITS_PER_WORD - 1) / BITS_PER_WORD;
+        }
+
+        // returns the courses whose bits are set in the bitset
+        private List<Course> coursesOf(long[] bitset) {
+            List<Course> result = new ArrayList<>();
+            for (int i = 0; i < this.courses.size(); i++) {
+                if (isSet(bitset, i)) {
+                    result.add(this.courses.get(i));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static boolean isSet(long[] bitset, int index) {
+        return (bitset[index / BITS_PER_WORD] & (1L << index)) != 0;
+    }
+
+    // returns true if every bit of subset is also set in superset
+    private static boolean isSubset(long[] subset, long[] superset) {
+        for (int i = 0; i < subset.length; i++) {
+            if ((subset[i] & ~superset[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void or(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= source[i];
+        }
+    }
+}
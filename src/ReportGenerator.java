@@ -2,53 +2,318 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 public class ReportGenerator {
 
+    // the size of the buffer report lines are encoded into before they are written
+    private static final int REPORT_BUFFER_SIZE = 1 << 20;
+    // the buffer is written once it holds this many bytes, so a regular line always fits into the rest of it
+    private static final int REPORT_DRAIN_THRESHOLD = REPORT_BUFFER_SIZE - 64 * 1024;
+    // the number of enrollments every range of a parallel report holds
+    private static final int PARALLEL_RANGE_SIZE = 16 * 1024;
+    // the size of the buffer every range of a parallel report starts with
+    private static final int PARALLEL_RANGE_BUFFER_SIZE = 256 * 1024;
+    // the number of ranges encoded ahead of the one being written, for every worker thread, so the encoded ranges
+    // waiting to be written never take more than a few buffers per thread
+    private static final int PARALLEL_RANGES_AHEAD_PER_THREAD = 2;
+
     public static void writeEnrollmentReport(String filePath, List<Enrollment> enrollments) throws ReportWriteException {
+        if (enrollments == null) {
+            throw new NullPointerException("list of enrollments cannot be null!");
+        }
+        writeEnrollmentReport(filePath, enrollments.iterator());
+    }
+
+    // writes the report of the enrollments as the stream hands them over, without collecting them first
+    public static void writeEnrollmentReport(String filePath, Stream<Enrollment> enrollments) throws ReportWriteException {
+        if (enrollments == null) {
+            throw new NullPointerException("stream of enrollments cannot be null!");
+        }
+        writeEnrollmentReport(filePath, enrollments.iterator());
+    }
+
+    // writes the report of the enrollments as the iterator hands them over, without collecting them first
+    // every line is encoded into a reusable buffer, and the buffer is written to the file whenever it fills up
+    public static void writeEnrollmentReport(String filePath, Iterator<Enrollment> enrollments) throws ReportWriteException {
+        if (filePath == null) {
+            throw new NullPointerException("file path cannot be null!");
+        }
+        if (enrollments == null) {
+            throw new NullPointerException("iterator of enrollments cannot be null!");
+        }
+        checkReportFile(filePath);
+
+        try {
+            writeLines(filePath, enrollments, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            if (e.getMessage() != null) {
+                // we didn't want to change the method signature, and it did not have 'throws IOException', so we
+                // catch any IOException and re-throw it as a ReportWriteException back to Main
+                throw new ReportWriteException(e.getMessage());
+            }
+        }
+    }
+
+    // brings the report up to date with the enrollments, which must only ever grow at their end
+    // a watermark kept next to the report remembers how many enrollments were written, and as long as the report and
+    // the written enrollments are still the same, only the enrollments after the watermark are appended to it
+    // anything else - no watermark, a report changed behind our back, enrollments that changed or were removed, a
+    // student or course that was renamed - means the whole report is written again
+    // returns the amount of enrollments written this time
+    public static int writeEnrollmentReportIncremental(String filePath, List<Enrollment> enrollments) throws ReportWriteException {
         if (filePath == null) {
             throw new NullPointerException("file path cannot be null!");
         }
         if (enrollments == null) {
             throw new NullPointerException("list of enrollments cannot be null!");
         }
+        checkReportFile(filePath);
 
-        File enrollmentReportFile = new File(filePath);
-        File enrollmentReportFileParentDirectory = enrollmentReportFile.getParentFile();
-        // if our file does not exist, all parent directories leading to our file must exist, or the creation of the file itself will fail
-        if (!enrollmentReportFile.exists()) {
-            if (enrollmentReportFileParentDirectory != null && !enrollmentReportFileParentDirectory.exists()) {
-                throw new ReportWriteException("all parent directories leading to our file must exist before creating the file!");
+        // taken before any enrollment is read, so a rename from here on is noticed the next time
+        long catalogVersion = CatalogVersion.get();
+        ReportWatermark watermark = ReportWatermark.read(filePath);
+        // a charset that is not ASCII compatible may write a byte order mark ahead of the first line, and it would end
+        // up in the middle of the report, so such a report is always written again
+        boolean append = watermark != null && new EnrollmentReportEncoder(1).isAsciiCompatible()
+                && watermark.canAppend(filePath, enrollments);
+        try {
+            int from;
+            int to;
+            long contentStamp;
+            if (append) {
+                from = watermark.getEnrollmentCount();
+                to = enrollments.size();
+                contentStamp = ReportWatermark.contentStamp(watermark.getContentStamp(), enrollments, from, to);
+                writeLines(filePath, rangeIterator(enrollments, from, to), StandardOpenOption.APPEND);
+            } else {
+                // drop the watermark first, so a report that fails half way is never appended to
+                Files.deleteIfExists(Paths.get(ReportWatermark.watermarkPath(filePath)));
+                Enrollment[] enrollmentArray = enrollments.toArray(new Enrollment[0]);
+                from = 0;
+                to = enrollmentArray.length;
+                contentStamp = ReportWatermark.contentStamp(ReportWatermark.INITIAL_CONTENT_STAMP, Arrays.asList(enrollmentArray), from, to);
+                writeLines(filePath, Arrays.asList(enrollmentArray).iterator(), StandardOpenOption.TRUNCATE_EXISTING);
             }
+            new ReportWatermark(filePath, enrollments, to, contentStamp, catalogVersion).write(filePath);
+            return to - from;
+        } catch (IOException e) {
+            // any IOException goes back to Main as a ReportWriteException, even one without a message, the caller has
+            // to know the report may be half written
+            throw new ReportWriteException(String.valueOf(e.getMessage()));
         }
-        // if our file does exist, it should point to a regular file
-        if (enrollmentReportFile.exists() && !enrollmentReportFile.isFile()) {
-            throw new ReportWriteException("cannot save enrollment report, the given filePath does not point to a regular file!");
+    }
+
+    // writes the same report as writeEnrollmentReport, using a worker thread for every processor
+    public static void writeEnrollmentReportParallel(String filePath, List<Enrollment> enrollments) throws ReportWriteException {
+        writeEnrollmentReportParallel(filePath, enrollments, Runtime.getRuntime().availableProcessors());
+    }
+
+    // writes the same report as writeEnrollmentReport, with the lines encoded on the given number of worker threads
+    // the enrollments are split into ranges, every range is encoded into a buffer of its own, and the buffers are
+    // written to the file in the order of the ranges, each one at the position right after the one before it
+    public static void writeEnrollmentReportParallel(String filePath, List<Enrollment> enrollments, int threadCount) throws ReportWriteException {
+        if (filePath == null) {
+            throw new NullPointerException("file path cannot be null!");
+        }
+        if (enrollments == null) {
+            throw new NullPointerException("list of enrollments cannot be null!");
+        }
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("thread count must be positive!");
         }
+        // take the enrollments out of the list once, the list may be synchronized, and then every get of every worker
+        // would have to take its lock
+        Enrollment[] enrollmentArray = enrollments.toArray(new Enrollment[0]);
+        int rangeCount = (enrollmentArray.length + PARALLEL_RANGE_SIZE - 1) / PARALLEL_RANGE_SIZE;
+        // a charset that is not ASCII compatible may write a byte order mark ahead of the first line, so the report
+        // can only be put together from separately encoded ranges when it is ASCII compatible
+        if (threadCount == 1 || rangeCount <= 1 || !new EnrollmentReportEncoder(1).isAsciiCompatible()) {
+            writeEnrollmentReport(filePath, Arrays.asList(enrollmentArray));
+            return;
+        }
+        checkReportFile(filePath);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            FileChannel channel = FileChannel.open(Paths.get(filePath),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                Deque<Future<EnrollmentReportEncoder>> encodedRanges = new ArrayDeque<>();
+                int rangesAhead = threadCount * PARALLEL_RANGES_AHEAD_PER_THREAD;
+                int nextRange = 0;
+                long position = 0;
+                while (nextRange < rangeCount || !encodedRanges.isEmpty()) {
+                    // keep the workers busy with the ranges after the one we are waiting for
+                    while (nextRange < rangeCount && encodedRanges.size() < rangesAhead) {
+                        int from = nextRange * PARALLEL_RANGE_SIZE;
+                        int to = Math.min(from + PARALLEL_RANGE_SIZE, enrollmentArray.length);
+                        encodedRanges.addLast(executor.submit(() -> encodeRange(enrollmentArray, from, to)));
+                        nextRange++;
+                    }
+                    position = encodedRanges.removeFirst().get().drainTo(channel, position);
+                }
+            } finally {
+                channel.close();
+            }
+        } catch (ExecutionException e) {
+            // throw what the failed range threw
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ReportWriteException(String.valueOf(cause));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportWriteException("interrupted while writing the enrollment report!");
+        } catch (IOException e) {
+            if (e.getMessage() != null) {
+                // same as writeEnrollmentReport, any IOException goes back to Main as a ReportWriteException
+                throw new ReportWriteException(e.getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // writes a summary of the enrollments, gathered in a single pass over them - the seats taken out of the capacity of
+    // every course, the credit points of every student and the enrollments of every day
+    public static void writeSummaryReport(String filePath, List<Enrollment> enrollments) throws ReportWriteException {
+        if (enrollments == null) {
+            throw new NullPointerException("list of enrollments cannot be null!");
+        }
+        writeSummaryReport(filePath, EnrollmentAggregates.of(enrollments));
+    }
+
+    // writes a summary of already gathered aggregates
+    public static void writeSummaryReport(String filePath, EnrollmentAggregates aggregates) throws ReportWriteException {
+        if (filePath == null) {
+            throw new NullPointerException("file path cannot be null!");
+        }
+        if (aggregates == null) {
+            throw new NullPointerException("aggregates cannot be null!");
+        }
+        checkReportFile(filePath);
 
-        // set the datetime formatting like it was specified in the assignment
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
         try {
             BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(filePath));
-            // iterate over all the given enrollments and append their data to our report file
-            for (Enrollment enrollment: enrollments) {
-                bufferedWriter.append(String.format("%s | %s | %s | %s",
-                        enrollment.getStudent().getId(),
-                        enrollment.getStudent().getName(),
-                        enrollment.getCourse().getTitle(),
-                        enrollment.getTimestamp().format(dateTimeFormatter)));
+            try {
+                bufferedWriter.append("=== Course occupancy ===");
+                bufferedWriter.newLine();
+                for (Course course: aggregates.getCourses()) {
+                    bufferedWriter.append(String.format(Locale.ROOT, "%s | %s | %d / %d | %.1f%%", course.getCode(), course.getTitle(),
+                            aggregates.getSeatsTaken(course), course.getCapacity(), aggregates.getFillRate(course) * 100));
+                    bufferedWriter.newLine();
+                }
+                bufferedWriter.newLine();
+                bufferedWriter.append("=== Student credit load ===");
+                bufferedWriter.newLine();
+                for (Student student: aggregates.getStudents()) {
+                    bufferedWriter.append(String.format(Locale.ROOT, "%s | %s | %d courses | %d credit points", student.getId(), student.getName(),
+                            aggregates.getEnrollmentCount(student), aggregates.getCreditPoints(student)));
+                    bufferedWriter.newLine();
+                }
                 bufferedWriter.newLine();
+                bufferedWriter.append("=== Enrollments per day ===");
+                bufferedWriter.newLine();
+                for (LocalDate day: aggregates.getDays()) {
+                    bufferedWriter.append(String.format(Locale.ROOT, "%s | %d", day, aggregates.getEnrollmentCount(day)));
+                    bufferedWriter.newLine();
+                }
+            } finally {
+                bufferedWriter.close();
             }
-            // close the buffer
-            bufferedWriter.close();
         } catch (IOException e) {
             if (e.getMessage() != null) {
-                // we didn't want to change the method signature, and it did not have 'throws IOException', so we
-                // catch any IOException and re-throw it as a ReportWriteException back to Main
+                // same as writeEnrollmentReport, any IOException goes back to Main as a ReportWriteException
                 throw new ReportWriteException(e.getMessage());
             }
         }
     }
+
+    // encodes the report lines of a range of enrollments into an encoder of their own
+    private static EnrollmentReportEncoder encodeRange(Enrollment[] enrollments, int from, int to) {
+        EnrollmentReportEncoder encoder = new EnrollmentReportEncoder(PARALLEL_RANGE_BUFFER_SIZE);
+        for (int i = from; i < to; i++) {
+            encoder.encode(enrollments[i]);
+        }
+        encoder.finish();
+        return encoder;
+    }
+
+    // encodes the report lines of the enrollments into a reusable buffer, which is written to the file whenever it
+    // fills up, the file is either truncated or appended to
+    private static void writeLines(String filePath, Iterator<Enrollment> enrollments, StandardOpenOption mode) throws IOException {
+        EnrollmentReportEncoder encoder = new EnrollmentReportEncoder(REPORT_BUFFER_SIZE);
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+        try {
+            // iterate over all the given enrollments and append their data to our report file
+            while (enrollments.hasNext()) {
+                encoder.encode(enrollments.next());
+                if (encoder.size() >= REPORT_DRAIN_THRESHOLD) {
+                    encoder.drainTo(channel);
+                }
+            }
+            encoder.finish();
+            encoder.drainTo(channel);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // iterates over a range of a list with get, unlike the iterator of a sub list it does not fail when the list
+    // grows at its end in the meantime
+    private static Iterator<Enrollment> rangeIterator(List<Enrollment> enrollments, int from, int to) {
+        return new Iterator<Enrollment>() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < to;
+            }
+
+            @Override
+            public Enrollment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return enrollments.get(this.next++);
+            }
+        };
+    }
+
+    // makes sure the report can be created at the given path
+    private static void checkReportFile(String filePath) throws ReportWriteException {
+        File enrollmentReportFile = new File(filePath);
+        File enrollmentReportFileParentDirectory = enrollmentReportFile.getParentFile();
+        // if our file does not exist, all parent directories leading to our file must exist, or the creation of the file itself will fail
+        if (!enrollmentReportFile.exists()) {
+            if (enrollmentReportFileParentDirectory != null && !enrollmentReportFileParentDirectory.exists()) {
+                throw new ReportWriteException("all parent directories leading to our file must exist before creating the file!");
+            }
+        }
+        // if our file does exist, it should point to a regular file
+        if (enrollmentReportFile.exists() && !enrollmentReportFile.isFile()) {
+            throw new ReportWriteException("cannot save enrollment report, the given filePath does not point to a regular file!");
+        }
+    }
 }
@@ -0,0 +1,246 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// how far an enrollment report was written, kept next to it as <report file>.watermark, so the next run can append
+// just the enrollments that arrived since instead of writing the whole report again
+// the watermark is written as [int magic][short version][int enrollment count][last enrollment][long report size]
+// [long report modified time][charset name][line separator][long content stamp][long run id][long catalog version],
+// where the last enrollment is the student id, the course code and the timestamp of the last enrollment written,
+// and it is only trusted while the report still has the same size and modified time, the enrollment list still
+// holds the same last enrollment at the same place, and the written enrollments still have the same text
+// the content stamp is a hash of the id, name, title and timestamp of every written enrollment, extended by every
+// append. it is only computed again when the catalog version (see CatalogVersion) moved since the watermark was
+// made in this very run, so as long as no student or course was renamed an append stays O(appended enrollments)
+// the watermark is only a shortcut - one that is missing, stale or corrupt simply means the report is written again
+public class ReportWatermark {
+
+    // the first bytes of every watermark file
+    public static final int WATERMARK_MAGIC = 0x434D5257;
+    // the current version of the watermark format
+    public static final short WATERMARK_VERSION = 2;
+    // the content stamp of a report without enrollments
+    public static final long INITIAL_CONTENT_STAMP = 0xcbf29ce484222325L;
+    // the prime the content stamp is mixed with
+    private static final long CONTENT_STAMP_PRIME = 0x100000001b3L;
+    // the extension added to the report file path
+    public static final String WATERMARK_EXTENSION = ".watermark";
+
+    // the amount of enrollments written to the report
+    private int enrollmentCount;
+    // the last enrollment written to the report, null if there was none
+    private String lastStudentId;
+    private String lastCourseCode;
+    private LocalDateTime lastTimestamp;
+    // the size and modified time of the report right after it was written
+    private long reportSize;
+    private long reportModifiedTime;
+    // the charset and line separator the report was written with
+    private String charsetName;
+    private String lineSeparator;
+    // the hash of the text of the written enrollments
+    private long contentStamp;
+    // the run and the catalog version the written enrollments were read at
+    private long runId;
+    private long catalogVersion;
+
+    // constructor, describes the report as it is on the disk right now, after its first enrollmentCount enrollments
+    // were written to it. the content stamp and the catalog version must both be taken before the enrollments were
+    // written, so a rename while writing is noticed the next time
+    public ReportWatermark(String reportPath, List<Enrollment> enrollments, int enrollmentCount, long contentStamp, long catalogVersion) {
+        if (reportPath == null) {
+            throw new NullPointerException("report path cannot be null!");
+        }
+        if (enrollments == null) {
+            throw new NullPointerException("list of enrollments cannot be null!");
+        }
+        if (enrollmentCount < 0 || enrollmentCount > enrollments.size()) {
+            throw new IllegalArgumentException("enrollment count must be within the list of enrollments!");
+        }
+        this.enrollmentCount = enrollmentCount;
+        if (enrollmentCount > 0) {
+            Enrollment lastEnrollment = enrollments.get(enrollmentCount - 1);
+            this.lastStudentId = lastEnrollment.getStudent().getId();
+            this.lastCourseCode = lastEnrollment.getCourse().getCode();
+            this.lastTimestamp = lastEnrollment.getTimestamp();
+        }
+        File reportFile = new File(reportPath);
+        this.reportSize = reportFile.length();
+        this.reportModifiedTime = reportFile.lastModified();
+        this.charsetName = Charset.defaultCharset().name();
+        this.lineSeparator = System.lineSeparator();
+        this.contentStamp = contentStamp;
+        this.runId = CatalogVersion.getRunId();
+        this.catalogVersion = catalogVersion;
+    }
+
+    // constructor used when reading a watermark file
+    private ReportWatermark() {
+    }
+
+    // enrollment count getter
+    public int getEnrollmentCount() {
+        return this.enrollmentCount;
+    }
+
+    // content stamp getter
+    public long getContentStamp() {
+        return this.contentStamp;
+    }
+
+    // returns the content stamp extended by the enrollments from the given position (inclusive) until the given
+    // position (exclusive), start from INITIAL_CONTENT_STAMP for the stamp of a whole report
+    public static long contentStamp(long contentStamp, List<Enrollment> enrollments, int from, int to) {
+        if (enrollments == null) {
+            throw new NullPointerException("list of enrollments cannot be null!");
+        }
+        for (int i = from; i < to; i++) {
+            Enrollment enrollment = enrollments.get(i);
+            // every string keeps its hash code once computed, so this costs a few multiplications per enrollment
+            contentStamp = (contentStamp ^ enrollment.getStudent().getId().hashCode()) * CONTENT_STAMP_PRIME;
+            contentStamp = (contentStamp ^ enrollment.getStudent().getName().hashCode()) * CONTENT_STAMP_PRIME;
+            contentStamp = (contentStamp ^ enrollment.getCourse().getTitle().hashCode()) * CONTENT_STAMP_PRIME;
+            contentStamp = (contentStamp ^ enrollment.getTimestamp().hashCode()) * CONTENT_STAMP_PRIME;
+        }
+        return contentStamp;
+    }
+
+    // returns the watermark file path of a report
+    public static String watermarkPath(String reportPath) {
+        return reportPath + WATERMARK_EXTENSION;
+    }
+
+    // returns the watermark of a report, or null if it has none or the watermark cannot be read
+    public static ReportWatermark read(String reportPath) {
+        if (reportPath == null) {
+            throw new NullPointerException("report path cannot be null!");
+        }
+        File watermarkFile = new File(watermarkPath(reportPath));
+        if (!watermarkFile.isFile()) {
+            return null;
+        }
+        DataInputStream dataInputStream = null;
+        try {
+            dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(watermarkFile)));
+            if (dataInputStream.readInt() != WATERMARK_MAGIC || dataInputStream.readShort() != WATERMARK_VERSION) {
+                return null;
+            }
+            ReportWatermark watermark = new ReportWatermark();
+            watermark.enrollmentCount = dataInputStream.readInt();
+            if (watermark.enrollmentCount < 0) {
+                return null;
+            }
+            if (watermark.enrollmentCount > 0) {
+                watermark.lastStudentId = dataInputStream.readUTF();
+                watermark.lastCourseCode = dataInputStream.readUTF();
+                watermark.lastTimestamp = LocalDateTime.ofEpochSecond(dataInputStream.readLong(), dataInputStream.readInt(), ZoneOffset.UTC);
+            }
+            watermark.reportSize = dataInputStream.readLong();
+            watermark.reportModifiedTime = dataInputStream.readLong();
+            watermark.charsetName = dataInputStream.readUTF();
+            watermark.lineSeparator = dataInputStream.readUTF();
+            watermark.contentStamp = dataInputStream.readLong();
+            watermark.runId = dataInputStream.readLong();
+            watermark.catalogVersion = dataInputStream.readLong();
+            return watermark;
+        } catch (IOException | RuntimeException e) {
+            // a watermark we cannot read is the same as no watermark
+            return null;
+        } finally {
+            closeQuietly(dataInputStream);
+        }
+    }
+
+    // writes the watermark next to the report, replacing the previous one at once
+    public void write(String reportPath) throws IOException {
+        if (reportPath == null) {
+            throw new NullPointerException("report path cannot be null!");
+        }
+        String temporaryWatermarkPath = watermarkPath(reportPath) + ".tmp";
+        DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryWatermarkPath)));
+        try {
+            dataOutputStream.writeInt(WATERMARK_MAGIC);
+            dataOutputStream.writeShort(WATERMARK_VERSION);
+            dataOutputStream.writeInt(this.enrollmentCount);
+            if (this.enrollmentCount > 0) {
+                dataOutputStream.writeUTF(this.lastStudentId);
+                dataOutputStream.writeUTF(this.lastCourseCode);
+                dataOutputStream.writeLong(this.lastTimestamp.toEpochSecond(ZoneOffset.UTC));
+                dataOutputStream.writeInt(this.lastTimestamp.getNano());
+            }
+            dataOutputStream.writeLong(this.reportSize);
+            dataOutputStream.writeLong(this.reportModifiedTime);
+            dataOutputStream.writeUTF(this.charsetName);
+            dataOutputStream.writeUTF(this.lineSeparator);
+            dataOutputStream.writeLong(this.contentStamp);
+            dataOutputStream.writeLong(this.runId);
+            dataOutputStream.writeLong(this.catalogVersion);
+        } finally {
+            dataOutputStream.close();
+        }
+        Files.move(Paths.get(temporaryWatermarkPath), Paths.get(watermarkPath(reportPath)), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // returns true if the report is still exactly what was written up to this watermark, and the enrollment list
+    // only grew since, so the enrollments after the watermark can simply be appended to the report
+    // a student or course renamed since, in this run or between runs, means the written lines are out of date
+    public boolean canAppend(String reportPath, List<Enrollment> enrollments) {
+        if (reportPath == null) {
+            throw new NullPointerException("report path cannot be null!");
+        }
+        if (enrollments == null) {
+            throw new NullPointerException("list of enrollments cannot be null!");
+        }
+        File reportFile = new File(reportPath);
+        if (!reportFile.isFile() || reportFile.length() != this.reportSize || reportFile.lastModified() != this.reportModifiedTime) {
+            // the report was changed or removed behind our back
+            return false;
+        }
+        if (!Charset.defaultCharset().name().equals(this.charsetName) || !System.lineSeparator().equals(this.lineSeparator)) {
+            // the new lines would not be encoded like the ones already written
+            return false;
+        }
+        if (this.enrollmentCount > enrollments.size()) {
+            // enrollments were removed
+            return false;
+        }
+        if (this.enrollmentCount == 0) {
+            return true;
+        }
+        // an enrollment list that only grew still has the last written enrollment at the same place
+        Enrollment lastEnrollment = enrollments.get(this.enrollmentCount - 1);
+        if (!lastEnrollment.getStudent().getId().equals(this.lastStudentId)
+                || !lastEnrollment.getCourse().getCode().equals(this.lastCourseCode)
+                || !lastEnrollment.getTimestamp().equals(this.lastTimestamp)) {
+            return false;
+        }
+        if (this.runId == CatalogVersion.getRunId() && this.catalogVersion == CatalogVersion.get()) {
+            // nothing was renamed since the written enrollments were read
+            return true;
+        }
+        return contentStamp(INITIAL_CONTENT_STAMP, enrollments, 0, this.enrollmentCount) == this.contentStamp;
+    }
+
+    private static void closeQuietly(DataInputStream dataInputStream) {
+        if (dataInputStream == null) {
+            return;
+        }
+        try {
+            dataInputStream.close();
+        } catch (IOException e) {
+            // nothing was written, so there is nothing to lose
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// loads the student and course files at the same time, and prepares the enrollment indexes of each one as soon as
+// it is loaded, while the other file may still be loading, so starting up takes about as long as the slower load
+// instead of both loads one after the other
+// the course load links the prerequisites and checks them for cycles as soon as the last course was read
+// the time every stage took is kept, so it is easy to see where the startup time goes
+public class StartupPipeline {
+
+    // the stages, in the order they are reported
+    public static final String LOAD_STUDENTS_STAGE = "load students";
+    public static final String LOAD_COURSES_STAGE = "load courses";
+    public static final String PREPARE_STUDENT_INDEXES_STAGE = "prepare student indexes";
+    public static final String PREPARE_COURSE_INDEXES_STAGE = "prepare course indexes";
+    public static final String TOTAL_STAGE = "total";
+    private static final String[] STAGES = {
+            LOAD_STUDENTS_STAGE,
+            LOAD_COURSES_STAGE,
+            PREPARE_STUDENT_INDEXES_STAGE,
+            PREPARE_COURSE_INDEXES_STAGE,
+            TOTAL_STAGE
+    };
+    // the two loads run on threads of their own, loading is mostly waiting for the disk
+    private static final int THREAD_COUNT = 2;
+
+    // the files to load
+    private String studentFilePath;
+    private String courseFilePath;
+    // the loaded students and courses, once run returned
+    private List<Student> students;
+    private List<Course> courses;
+    // the prerequisite graph of the loaded courses, once run returned
+    private PrerequisiteGraph prerequisiteGraph;
+    // the time every stage took in nanoseconds, by stage
+    private Map<String, Long> stageNanos = new ConcurrentHashMap<>();
+
+    // constructor
+    public StartupPipeline(String studentFilePath, String courseFilePath) {
+        if (studentFilePath == null || courseFilePath == null) {
+            throw new NullPointerException("file paths cannot be null!");
+        }
+        this.studentFilePath = studentFilePath;
+        this.courseFilePath = courseFilePath;
+    }
+
+    // list of loaded students getter
+    public List<Student> getStudents() {
+        return this.students;
+    }
+
+    // list of loaded courses getter
+    public List<Course> getCourses() {
+        return this.courses;
+    }
+
+    // prerequisite graph getter
+    public PrerequisiteGraph getPrerequisiteGraph() {
+        return this.prerequisiteGraph;
+    }
+
+    // returns the time every stage took in nanoseconds, in the order the stages are listed above
+    public Map<String, Long> getStageNanos() {
+        Map<String, Long> orderedStageNanos = new LinkedHashMap<>();
+        for (String stage: STAGES) {
+            Long nanos = this.stageNanos.get(stage);
+            if (nanos != null) {
+                orderedStageNanos.put(stage, nanos);
+            }
+        }
+        return Collections.unmodifiableMap(orderedStageNanos);
+    }
+
+    // returns the stage timings as a printable report, one stage per line
+    public String getTimingReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Long> stage: getStageNanos().entrySet()) {
+            report.append(String.format("%-24s %8.2f ms%n", stage.getKey(), stage.getValue() / 1_000_000.0));
+        }
+        return report.toString();
+    }
+
+    // loads both files and prepares the enrollment indexes, the students and courses are ready once it returns
+    public void run() throws IOException, BadFormatException {
+        long startNanos = System.nanoTime();
+        EnrollmentManager manager = new EnrollmentManager();
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            CompletableFuture<List<Student>> studentsLoaded = CompletableFuture.supplyAsync(
+                    timed(LOAD_STUDENTS_STAGE, () -> new StudentFileLoader().loadCached(this.studentFilePath)), executor);
+            CompletableFuture<CourseFileLoader> coursesLoaded = CompletableFuture.supplyAsync(
+                    timed(LOAD_COURSES_STAGE, () -> {
+                        CourseFileLoader courseLoader = new CourseFileLoader();
+                        courseLoader.loadCached(this.courseFilePath);
+                        return courseLoader;
+                    }), executor);
+
+            // each side prepares its indexes as soon as its own load finished, no matter how far the other one got
+            CompletableFuture<Void> studentIndexesPrepared = studentsLoaded.thenAccept(loadedStudents ->
+                    timed(PREPARE_STUDENT_INDEXES_STAGE, () -> {
+                        manager.prepareStudentIndexes(loadedStudents);
+                        return null;
+                    }).get());
+            CompletableFuture<Void> courseIndexesPrepared = coursesLoaded.thenAccept(courseLoader ->
+                    timed(PREPARE_COURSE_INDEXES_STAGE, () -> {
+                        manager.prepareCourseIndexes(courseLoader.getLoadedCourses());
+                        return null;
+                    }).get());
+
+            CompletableFuture.allOf(studentIndexesPrepared, courseIndexesPrepared).join();
+            this.students = studentsLoaded.join();
+            this.courses = coursesLoaded.join().getLoadedCourses();
+            this.prerequisiteGraph = coursesLoaded.join().getPrerequisiteGraph();
+        } catch (CompletionException e) {
+            // throw what the failed stage threw
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof BadFormatException) {
+                throw (BadFormatException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+        this.stageNanos.put(TOTAL_STAGE, System.nanoTime() - startNanos);
+    }
+
+    // returns a supplier that runs the stage and keeps the time it took, a checked exception thrown by the stage is
+    // thrown wrapped in a CompletionException, which is what CompletableFuture does with any exception anyway
+    private <T> Supplier<T> timed(String stageName, Stage<T> stage) {
+        return () -> {
+            long startNanos = System.nanoTime();
+            try {
+                return stage.run();
+            } catch (IOException | BadFormatException e) {
+                throw new CompletionException(e);
+            } finally {
+                this.stageNanos.put(stageName, System.nanoTime() - startNanos);
+            }
+        };
+    }
+
+    // a single stage of the pipeline
+    private interface Stage<T> {
+        T run() throws IOException, BadFormatException;
+    }
+}
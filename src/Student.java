@@ -3,8 +3,11 @@ import java.time.LocalDate;
 // Student is already Serializable thanks to Person
 public class Student extends Person {
 
-    // student enrollment date
-    private LocalDate enrollmentDate;
+    // the serialVersionUID the class always had, so files saved before the fields became volatile still load
+    private static final long serialVersionUID = 8756150462583201022L;
+
+    // student enrollment date, volatile since the catalog watcher changes it while others read it
+    private volatile LocalDate enrollmentDate;
 
     // constructor
     public Student(String id, String name, LocalDate enrollmentDate) {
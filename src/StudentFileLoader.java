@@ -1,11 +1,31 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class StudentFileLoader {
 
@@ -25,6 +45,12 @@ public class StudentFileLoader {
 
     // list that holds the courses successfully loaded so far
     private List<Student> loadedStudents;
+    // the same students by id, so telling whether a student was already loaded does not go over the whole list
+    private Map<String, Student> loadedStudentsById;
+    // amount of lines parsed by the current load, so errors can be reported against the line they were found at
+    private int parsedLineCount;
+    // when set, every parsed student is handed to it instead of being added to the loaded students (see forEach)
+    private Consumer<Student> parsedStudentConsumer;
 
     // the variables below describe all the parser keys and delimiters
 
@@ -36,6 +62,16 @@ public class StudentFileLoader {
     public static final String NAME_KEY = "Name";
     // student join date key
     public static final String JOINED_KEY = "Joined";
+    // the same keys as bytes, for the memory mapped parsing
+    private static final byte[] ID_KEY_BYTES = ID_KEY.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NAME_KEY_BYTES = NAME_KEY.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JOINED_KEY_BYTES = JOINED_KEY.getBytes(StandardCharsets.US_ASCII);
+
+    // the smallest amount of bytes worth parsing on a separate thread when loading in parallel
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 1 << 20;
+    // amount of chunks per processor when loading in parallel, a few more chunks than threads keep all the threads
+    // busy even when some chunks take longer than others
+    private static final int PARALLEL_CHUNKS_PER_PROCESSOR = 4;
 
     // constructor
     public StudentFileLoader() {
@@ -51,6 +87,15 @@ public class StudentFileLoader {
     // instead of a setter, we clear and initialize the list for every new loader
     public void clearLoadedStudents() {
         this.loadedStudents = new ArrayList<>();
+        this.loadedStudentsById = new HashMap<>();
+    }
+
+    // returns the loaded student with the given id, or null if there is none
+    public Student getStudentById(String id) {
+        if (id == null) {
+            throw new NullPointerException("student id cannot be null!");
+        }
+        return this.loadedStudentsById.get(id);
     }
 
     // if we think we have enough parsed data to construct a new student, we do it here
@@ -65,7 +110,11 @@ public class StudentFileLoader {
             } else {
                 // if we get here, we have everything we need to construct a new student and add it to our loaded students list
                 Student student = new Student(this.parsedId, this.parsedName, this.parsedLocalDate);
-                addLoadedStudent(student);
+                if (this.parsedStudentConsumer != null) {
+                    this.parsedStudentConsumer.accept(student);
+                } else {
+                    addLoadedStudent(student);
+                }
                 prepareToReadNextStudentBlock();
             }
         }
@@ -76,13 +125,21 @@ public class StudentFileLoader {
         if (student == null) {
             throw new NullPointerException("student cannot be null!");
         }
-        if (getLoadedStudents().contains(student)) {
+        if (this.loadedStudentsById.putIfAbsent(student.getId(), student) != null) {
             // prevent duplication
             return;
         }
         this.loadedStudents.add(student);
     }
 
+    // hands out the dense student ids at load time, so enrolling does not have to
+    // this is done once the entire file was loaded, so students get their ids in file order
+    private void internLoadedStudents() {
+        for (Student student: this.loadedStudents) {
+            CatalogIds.internStudent(student);
+        }
+    }
+
     // reset our parsing variables before parsing new data
     private void prepareToReadNextStudentBlock() {
         this.parsedId = null;
@@ -119,53 +176,421 @@ public class StudentFileLoader {
     }
 
     public List<Student> load(String filePath) throws IOException, BadFormatException {
+        return load(new FileReader(filePath));
+    }
+
+    // same as load, but the students are read from any reader, which is closed once done
+    public List<Student> load(Reader reader) throws IOException, BadFormatException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+
+        this.parsedLineCount = 0;
+        try {
+            while (parseNextLine(bufferedReader)) {
+                // every line was handled by parseNextLine
+            }
+        } finally {
+            bufferedReader.close();
+        }
+
+        internLoadedStudents();
+        return loadedStudents;
+    }
+
+    // hands every student of the file to the consumer as soon as its block was parsed, without keeping the students
+    // around. the consumer sees the same students load would return, in the same order - to skip duplicates the id
+    // of every student seen so far is kept, so memory still grows by one id string per student
+    // a student may reach the consumer before an error further down the file is found
+    public void forEach(String filePath, Consumer<Student> consumer) throws IOException, BadFormatException {
+        forEach(filePath, consumer, true);
+    }
+
+    // same as forEach, but when skipDuplicates is false every student block reaches the consumer, duplicates
+    // included, and no ids are kept - memory then stays the same no matter how large the file is
+    public void forEach(String filePath, Consumer<Student> consumer, boolean skipDuplicates) throws IOException, BadFormatException {
+        if (consumer == null) {
+            throw new NullPointerException("student consumer cannot be null!");
+        }
+        BufferedReader bufferedReader = new BufferedReader(new FileReader(filePath));
+        StudentFileLoader streamingLoader = streamingLoader(consumer, skipDuplicates);
+        try {
+            while (streamingLoader.parseNextLine(bufferedReader)) {
+                // every line was handled by parseNextLine
+            }
+        } finally {
+            bufferedReader.close();
+        }
+    }
+
+    // same as forEach, but the file is only read as far as the returned stream is consumed, the stream must be closed
+    // to close the file. format errors are thrown from the stream as UncheckedBadFormatException
+    public Stream<Student> stream(String filePath) throws IOException {
+        return stream(filePath, true);
+    }
+
+    // same as stream, but when skipDuplicates is false the duplicates are kept in the stream and no ids are kept
+    public Stream<Student> stream(String filePath, boolean skipDuplicates) throws IOException {
         BufferedReader bufferedReader = new BufferedReader(new FileReader(filePath));
+        Deque<Student> parsedStudents = new ArrayDeque<>();
+        StudentFileLoader streamingLoader = streamingLoader(parsedStudents::add, skipDuplicates);
+
+        Iterator<Student> iterator = new Iterator<Student>() {
+            // set once the end of the file was reached
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                // a student is only complete once the next ID line (or the end of the file) is reached
+                while (parsedStudents.isEmpty() && !this.finished) {
+                    try {
+                        this.finished = !streamingLoader.parseNextLine(bufferedReader);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (BadFormatException e) {
+                        throw new UncheckedBadFormatException(e);
+                    }
+                }
+                return !parsedStudents.isEmpty();
+            }
+
+            @Override
+            public Student next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return parsedStudents.poll();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        bufferedReader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    // returns a loader that hands the students it parses to the consumer, skipping duplicates like addLoadedStudent
+    // if asked to, which costs one id string per student
+    private static StudentFileLoader streamingLoader(Consumer<Student> consumer, boolean skipDuplicates) {
+        StudentFileLoader streamingLoader = new StudentFileLoader();
+        if (!skipDuplicates) {
+            streamingLoader.parsedStudentConsumer = consumer;
+            return streamingLoader;
+        }
+        Set<String> parsedIds = new HashSet<>();
+        streamingLoader.parsedStudentConsumer = student -> {
+            if (parsedIds.add(student.getId())) {
+                consumer.accept(student);
+            }
+        };
+        return streamingLoader;
+    }
+
+    // parses the next line of the file, returns false once the end of the file was reached and the last student
+    // block was added
+    private boolean parseNextLine(BufferedReader bufferedReader) throws IOException, BadFormatException {
+        try {
+            String line = bufferedReader.readLine();
+            if (line == null) {
+                // if we get here, we reached the end of the file. now, since we must land on the ID_KEY
+                // to add a new student, we check for it here because the file does not end with the ID_KEY
+                maybeAddParsedStudentOrThrow("unexpected end of file, some student parameters are missing!");
+                return false;
+            }
+            this.parsedLineCount++;
+            parseLine(line);
+            return true;
+        } catch (BadFormatException e) {
+            throw new BadFormatException(e, this.parsedLineCount);
+        }
+    }
+
+    // same as load, but the file is memory mapped and scanned byte by byte, so keys, dates and the line itself never
+    // become strings - only the values we keep do. accepts and rejects exactly the same files as load
+    public List<Student> loadMapped(String filePath) throws IOException, BadFormatException {
+        ByteBuffer buffer = CatalogByteParser.map(filePath);
+        if (buffer == null) {
+            // too large to be mapped at once
+            return load(filePath);
+        }
+
+        this.parsedLineCount = 0;
+        try {
+            parseBytes(buffer, 0, buffer.limit());
+
+            // same as in load, the last student block is only added at the end of the file
+            maybeAddParsedStudentOrThrow("unexpected end of file, some student parameters are missing!");
+        } catch (BadFormatException e) {
+            throw new BadFormatException(e, this.parsedLineCount);
+        }
+
+        internLoadedStudents();
+        return loadedStudents;
+    }
+
+    // same as loadMapped, but the parsed students are also written to a snapshot next to the file (see CatalogSnapshot),
+    // and as long as the file does not change, later loads read the snapshot instead of parsing the file again
+    // the file is parsed on its own, so the snapshot holds exactly its students
+    public List<Student> loadCached(String filePath) throws IOException, BadFormatException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(filePath);
+        List<Student> students = snapshot.readStudents();
+        if (students == null) {
+            students = new StudentFileLoader().loadMapped(filePath);
+            try {
+                snapshot.writeStudents(students);
+            } catch (IOException e) {
+                // the snapshot is only a cache, the next load simply parses the file again
+            }
+        }
+        for (Student student: students) {
+            addLoadedStudent(student);
+        }
+
+        internLoadedStudents();
+        return loadedStudents;
+    }
+
+    // same as loadMapped, but the file is split into chunks that are parsed on the fork-join pool, and the students
+    // of all the chunks are merged in file order. accepts and rejects exactly the same files as load, and reports
+    // errors against the same lines
+    // a chunk always starts at an ID line, since a student block ends exactly where the next ID line starts. the
+    // first ID line of the file is never used though, lines before it may hold parameters that belong to its block
+    public List<Student> loadParallel(String filePath) throws IOException, BadFormatException {
+        ByteBuffer buffer = CatalogByteParser.map(filePath);
+        if (buffer == null) {
+            // too large to be mapped at once
+            return load(filePath);
+        }
+
+        List<Integer> chunkStarts = findChunkStarts(buffer);
+        List<ParsedChunk> chunks = IntStream.range(0, chunkStarts.size())
+                .parallel()
+                .mapToObj(i -> parseChunk(buffer, chunkStarts.get(i), i + 1 < chunkStarts.size() ? chunkStarts.get(i + 1) : buffer.limit(), i + 1 == chunkStarts.size()))
+                .collect(Collectors.toList());
 
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-            if (line.isBlank()) {
-                // skip blank lines
-                continue;
-            }
-
-            String[] parts = line.split(KEY_VALUE_DELIMITER_PATTERN);
-            if (parts.length < 2) {
-                // line was not delimited properly or a value is missing after the delimiter
-                throw new BadFormatException("student file lines should be delimited with '" + KEY_VALUE_DELIMITER_PATTERN + "'!");
-            }
-
-            switch (parts[0]) {
-                case ID_KEY:
-                    // if we get here, we try adding a new student to our loaded students
-                    // if it's our first time here, no student will be added
-                    // if it's not our first time here, then it means we landed on an ID_KEY while holding onto another parsedId
-                    // so it must mean we finished an entire student block
-                    maybeAddParsedStudentOrThrow("some student parameters are missing after reading a full student block!");
-                    // parse student id
-                    this.parsedId = parseStringValueOrThrow(parts[1], "expected student id!");
-                    break;
-                case NAME_KEY:
-                    // parse student name
-                    this.parsedName = parseStringValueOrThrow(parts[1], "expected student name!");
-                    break;
-                case JOINED_KEY:
-                    // parse student join date
-                    this.parsedLocalDate = parseLocalDateValueOrThrow(parts[1], "expected join date!");
-                    break;
-                default:
-                    // unknown key
-                    throw new BadFormatException("non-empty student file lines must start with: " +
-                            ID_KEY + ", " +
-                            NAME_KEY + " or " +
-                            JOINED_KEY + "!");
-            }
-        }
-        bufferedReader.close();
-
-        // if we get here, we probably reached the end of the file. now, since we must land on the ID_KEY
-        // to add a new student, we check for it here because the file does not end with the ID_KEY
-        maybeAddParsedStudentOrThrow("unexpected end of file, some student parameters are missing!");
+        // the first failing chunk holds the error a sequential load would have stopped at, and all the chunks
+        // before it were parsed in full, so their line counts tell where the chunk starts inside the file
+        int linesBeforeChunk = 0;
+        for (ParsedChunk chunk: chunks) {
+            if (chunk.runtimeFailure != null) {
+                throw chunk.runtimeFailure;
+            }
+            if (chunk.failure != null) {
+                throw new BadFormatException(chunk.failure, linesBeforeChunk + chunk.failureLine);
+            }
+            linesBeforeChunk += chunk.lineCount;
+        }
+
+        // the first of several students with the same id wins, no matter which chunks they came from
+        for (ParsedChunk chunk: chunks) {
+            for (Student student: chunk.students) {
+                addLoadedStudent(student);
+            }
+        }
 
+        internLoadedStudents();
         return loadedStudents;
     }
+
+    // splits the file into chunks of roughly the same size, and returns the position every chunk starts at
+    private List<Integer> findChunkStarts(ByteBuffer buffer) {
+        List<Integer> chunkStarts = new ArrayList<>();
+        chunkStarts.add(0);
+
+        int limit = buffer.limit();
+        int chunkCount = Math.min(Runtime.getRuntime().availableProcessors() * PARALLEL_CHUNKS_PER_PROCESSOR, limit / MIN_PARALLEL_CHUNK_SIZE);
+        if (chunkCount < 2) {
+            return chunkStarts;
+        }
+
+        // chunks may only start after the first ID line
+        int lineStart = 0;
+        while (lineStart < limit && !isIdLine(buffer, lineStart, CatalogByteParser.lineEnd(buffer, lineStart, limit))) {
+            lineStart = CatalogByteParser.nextLineStart(buffer, CatalogByteParser.lineEnd(buffer, lineStart, limit), limit);
+        }
+        int firstAllowedStart = CatalogByteParser.nextLineStart(buffer, CatalogByteParser.lineEnd(buffer, lineStart, limit), limit);
+
+        for (int i = 1; i < chunkCount; i++) {
+            // move from the even split point to the next ID line
+            lineStart = CatalogByteParser.lineStartAtOrAfter(buffer, Math.max((int) ((long) limit * i / chunkCount), firstAllowedStart), limit);
+            if (lineStart <= chunkStarts.get(chunkStarts.size() - 1)) {
+                lineStart = CatalogByteParser.nextLineStart(buffer, CatalogByteParser.lineEnd(buffer, chunkStarts.get(chunkStarts.size() - 1), limit), limit);
+            }
+            int lineEnd = CatalogByteParser.lineEnd(buffer, lineStart, limit);
+            while (lineStart < limit && !isIdLine(buffer, lineStart, lineEnd)) {
+                lineStart = CatalogByteParser.nextLineStart(buffer, lineEnd, limit);
+                lineEnd = CatalogByteParser.lineEnd(buffer, lineStart, limit);
+            }
+            if (lineStart >= limit) {
+                break;
+            }
+            chunkStarts.add(lineStart);
+        }
+        return chunkStarts;
+    }
+
+    // returns true if parseLine would handle the line as an ID line, which is a line that starts with the ID key and
+    // a delimiter, followed by something else than delimiters
+    private static boolean isIdLine(ByteBuffer buffer, int lineStart, int lineEnd) {
+        int delimiter = lineStart + ID_KEY_BYTES.length;
+        return delimiter < lineEnd
+                && buffer.get(delimiter) == CatalogByteParser.KEY_VALUE_DELIMITER
+                && CatalogByteParser.matches(buffer, lineStart, delimiter, ID_KEY_BYTES)
+                && !CatalogByteParser.consistsOf(buffer, delimiter + 1, lineEnd, CatalogByteParser.KEY_VALUE_DELIMITER);
+    }
+
+    // parses a single chunk with a loader of its own, errors are kept in the result instead of being thrown, so the
+    // merge can report the one a sequential load would have reported
+    private static ParsedChunk parseChunk(ByteBuffer buffer, int from, int to, boolean lastChunk) {
+        StudentFileLoader loader = new StudentFileLoader();
+        ParsedChunk chunk = new ParsedChunk();
+        try {
+            loader.parseBytes(buffer, from, to);
+            chunk.lineCount = loader.parsedLineCount;
+            if (lastChunk) {
+                loader.maybeAddParsedStudentOrThrow("unexpected end of file, some student parameters are missing!");
+            } else {
+                // a sequential load adds the last block of the chunk when it reaches the ID line of the next chunk
+                loader.parsedLineCount++;
+                loader.maybeAddParsedStudentOrThrow("some student parameters are missing after reading a full student block!");
+            }
+            chunk.students = loader.loadedStudents;
+        } catch (BadFormatException e) {
+            chunk.failure = e;
+            chunk.failureLine = loader.parsedLineCount;
+        } catch (RuntimeException e) {
+            chunk.runtimeFailure = e;
+        }
+        return chunk;
+    }
+
+    // the outcome of parsing a single chunk
+    private static class ParsedChunk {
+        // the students of the chunk, in the order they appear in it
+        private List<Student> students;
+        // amount of lines in the chunk
+        private int lineCount;
+        // the error the chunk failed with, and the line of the chunk it was found at
+        private BadFormatException failure;
+        private int failureLine;
+        // any other error the chunk failed with
+        private RuntimeException runtimeFailure;
+    }
+
+    // parses a single line of the student file
+    private void parseLine(String line) throws BadFormatException {
+        if (line.isBlank()) {
+            // skip blank lines
+            return;
+        }
+
+        String[] parts = line.split(KEY_VALUE_DELIMITER_PATTERN);
+        if (parts.length < 2) {
+            // line was not delimited properly or a value is missing after the delimiter
+            throw new BadFormatException("student file lines should be delimited with '" + KEY_VALUE_DELIMITER_PATTERN + "'!");
+        }
+
+        switch (parts[0]) {
+            case ID_KEY:
+                // if we get here, we try adding a new student to our loaded students
+                // if it's our first time here, no student will be added
+                // if it's not our first time here, then it means we landed on an ID_KEY while holding onto another parsedId
+                // so it must mean we finished an entire student block
+                maybeAddParsedStudentOrThrow("some student parameters are missing after reading a full student block!");
+                // parse student id
+                this.parsedId = parseStringValueOrThrow(parts[1], "expected student id!");
+                break;
+            case NAME_KEY:
+                // parse student name
+                this.parsedName = parseStringValueOrThrow(parts[1], "expected student name!");
+                break;
+            case JOINED_KEY:
+                // parse student join date
+                this.parsedLocalDate = parseLocalDateValueOrThrow(parts[1], "expected join date!");
+                break;
+            default:
+                // unknown key
+                throw unknownKeyException();
+        }
+    }
+
+    // parses every line of the given byte range, which must start at the beginning of a line
+    private void parseBytes(ByteBuffer buffer, int from, int to) throws BadFormatException {
+        int lineStart = from;
+        while (lineStart < to) {
+            this.parsedLineCount++;
+            int lineEnd = CatalogByteParser.lineEnd(buffer, lineStart, to);
+            if (CatalogByteParser.isAscii(buffer, lineStart, lineEnd)) {
+                parseAsciiLine(buffer, lineStart, lineEnd);
+            } else {
+                // the byte level helpers only deal with ASCII, so anything else goes through the regular parsing
+                parseLine(CatalogByteParser.decodedString(buffer, lineStart, lineEnd));
+            }
+            lineStart = CatalogByteParser.nextLineStart(buffer, lineEnd, to);
+        }
+    }
+
+    // same as parseLine for an ASCII line, each step mirrors the string operation parseLine uses
+    private void parseAsciiLine(ByteBuffer buffer, int lineStart, int lineEnd) throws BadFormatException {
+        if (CatalogByteParser.isBlank(buffer, lineStart, lineEnd)) {
+            // skip blank lines
+            return;
+        }
+
+        // split drops trailing empty parts, so a line has less than 2 parts when it has no delimiter at all or
+        // when nothing but delimiters follows the first one
+        int delimiter = CatalogByteParser.indexOf(buffer, lineStart, lineEnd, CatalogByteParser.KEY_VALUE_DELIMITER);
+        if (delimiter < 0 || CatalogByteParser.consistsOf(buffer, delimiter + 1, lineEnd, CatalogByteParser.KEY_VALUE_DELIMITER)) {
+            throw new BadFormatException("student file lines should be delimited with '" + KEY_VALUE_DELIMITER_PATTERN + "'!");
+        }
+        // the value is the second part, everything after a second delimiter is ignored just like with split
+        int valueStart = delimiter + 1;
+        int valueEnd = CatalogByteParser.indexOf(buffer, valueStart, lineEnd, CatalogByteParser.KEY_VALUE_DELIMITER);
+        if (valueEnd < 0) {
+            valueEnd = lineEnd;
+        }
+
+        if (CatalogByteParser.matches(buffer, lineStart, delimiter, ID_KEY_BYTES)) {
+            maybeAddParsedStudentOrThrow("some student parameters are missing after reading a full student block!");
+            this.parsedId = parseAsciiStringValueOrThrow(buffer, valueStart, valueEnd, "expected student id!");
+        } else if (CatalogByteParser.matches(buffer, lineStart, delimiter, NAME_KEY_BYTES)) {
+            this.parsedName = parseAsciiStringValueOrThrow(buffer, valueStart, valueEnd, "expected student name!");
+        } else if (CatalogByteParser.matches(buffer, lineStart, delimiter, JOINED_KEY_BYTES)) {
+            this.parsedLocalDate = parseAsciiLocalDateValueOrThrow(buffer, valueStart, valueEnd, "expected join date!");
+        } else {
+            // unknown key
+            throw unknownKeyException();
+        }
+    }
+
+    // same as parseStringValueOrThrow for an ASCII range
+    private String parseAsciiStringValueOrThrow(ByteBuffer buffer, int from, int to, String errorMessage) throws BadFormatException {
+        if (CatalogByteParser.isBlank(buffer, from, to)) {
+            throw new BadFormatException(errorMessage);
+        }
+        int valueStart = CatalogByteParser.trimStart(buffer, from, to);
+        return CatalogByteParser.asciiString(buffer, valueStart, CatalogByteParser.trimEnd(buffer, valueStart, to));
+    }
+
+    // same as parseLocalDateValueOrThrow for an ASCII range
+    private LocalDate parseAsciiLocalDateValueOrThrow(ByteBuffer buffer, int from, int to, String errorMessage) throws BadFormatException {
+        if (CatalogByteParser.isBlank(buffer, from, to)) {
+            throw new BadFormatException(errorMessage);
+        }
+        int valueStart = CatalogByteParser.trimStart(buffer, from, to);
+        try {
+            return CatalogByteParser.parseDate(buffer, valueStart, CatalogByteParser.trimEnd(buffer, valueStart, to));
+        } catch (DateTimeException e) {
+            throw new BadFormatException(errorMessage);
+        }
+    }
+
+    // the exception for a line with an unknown key
+    private BadFormatException unknownKeyException() {
+        return new BadFormatException("non-empty student file lines must start with: " +
+                ID_KEY + ", " +
+                NAME_KEY + " or " +
+                JOINED_KEY + "!");
+    }
 }
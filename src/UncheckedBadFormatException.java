@@ -0,0 +1,16 @@
+// wraps a BadFormatException so it can be thrown where checked exceptions are not allowed, like from a stream
+public class UncheckedBadFormatException extends RuntimeException {
+
+    // the first version of the class
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedBadFormatException(BadFormatException cause) {
+        super(cause);
+    }
+
+    // the wrapped exception is always a BadFormatException
+    @Override
+    public BadFormatException getCause() {
+        return (BadFormatException) super.getCause();
+    }
+}